@@ -0,0 +1,37 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Runs the benchmarks matching the arguments once per thread count of the {@code jmh.threads} system property, with the
+ * GC profiler, so results report both ns/op and bytes/op ({@code gc.alloc.rate.norm}).
+ * Results are written as JSON to the directory of the {@code jmh.results} system property, one file per thread count.
+ */
+public final class BenchmarkRunner {
+  private BenchmarkRunner() {
+  }
+
+  public static void main(@NotNull String... includes) throws RunnerException {
+    final File results = new File(System.getProperty("jmh.results", "build/reports/jmh"));
+    results.mkdirs();
+    for (String threads : System.getProperty("jmh.threads", "1").split(",")) {
+      final ChainedOptionsBuilder options = new OptionsBuilder()
+          .threads(Integer.parseInt(threads.trim()))
+          .addProfiler(GCProfiler.class)
+          .resultFormat(ResultFormatType.JSON)
+          .result(new File(results, "threads-" + threads.trim() + ".json").getPath());
+      for (String include : includes) {
+        options.include(include);
+      }
+      new Runner(options.build()).run();
+    }
+  }
+}
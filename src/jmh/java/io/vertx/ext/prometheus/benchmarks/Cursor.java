@@ -0,0 +1,22 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Position of a benchmark thread in the label values of a benchmark, so threads cycle through all of them.
+ */
+@State(Scope.Thread)
+public class Cursor {
+  private int next;
+
+  /**
+   * @param size The number of label values.
+   * @return The index of the next label value.
+   */
+  int next(int size) {
+    final int index = next;
+    next = index + 1 == size ? 0 : index + 1;
+    return index;
+  }
+}
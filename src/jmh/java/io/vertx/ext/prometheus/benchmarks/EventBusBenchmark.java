@@ -0,0 +1,71 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.ext.prometheus.metrics.EventBusPrometheusMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the event bus callbacks on the path of a message, with messages spread over a number of addresses which
+ * all have a handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+  @Param({"1", "100", "10000"})
+  private int addresses;
+
+  private EventBusPrometheusMetrics metrics;
+  private String[] names;
+  private EventBusPrometheusMetrics.Metric[] handlers;
+
+  @Setup
+  public void setup() {
+    metrics = new EventBusPrometheusMetrics(new CollectorRegistry());
+    names = new String[addresses];
+    handlers = new EventBusPrometheusMetrics.Metric[addresses];
+    for (int i = 0; i < addresses; i++) {
+      names[i] = "address-" + i;
+      handlers[i] = metrics.handlerRegistered(names[i], null);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (EventBusPrometheusMetrics.Metric handler : handlers) {
+      metrics.handlerUnregistered(handler);
+    }
+    metrics.close();
+  }
+
+  @Benchmark
+  public void messageSent(Cursor cursor) {
+    metrics.messageSent(names[cursor.next(addresses)], false, true, false);
+  }
+
+  @Benchmark
+  public void messageReceived(Cursor cursor) {
+    metrics.messageReceived(names[cursor.next(addresses)], false, true, 1);
+  }
+
+  @Benchmark
+  public void beginHandleMessage(Cursor cursor) {
+    metrics.beginHandleMessage(handlers[cursor.next(addresses)], true);
+  }
+}
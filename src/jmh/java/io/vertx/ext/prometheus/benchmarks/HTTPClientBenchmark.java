@@ -0,0 +1,76 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.prometheus.metrics.HTTPClientPrometheusMetrics;
+import io.vertx.ext.prometheus.metrics.counters.HTTPRequestMetrics;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an exchange of an HTTP client, from {@code requestBegin} to {@code responseEnd}, with requests spread over
+ * a number of hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HTTPClientBenchmark {
+  @Param({"1", "100", "10000"})
+  private int hosts;
+
+  private HTTPClientPrometheusMetrics metrics;
+  private HttpClientRequest[] requests;
+  private HttpClientResponse response;
+  private SocketAddress localAddress;
+  private SocketAddress remoteAddress;
+
+  @Setup
+  public void setup() {
+    final CollectorRegistry registry = new CollectorRegistry();
+    metrics = new HTTPClientPrometheusMetrics(registry, "localhost", new GaugeFactory(registry), new CounterFactory(registry), new HistogramFactory(registry));
+    response = Stubs.of(HttpClientResponse.class).answer("statusCode", 200).create();
+    localAddress = SocketAddress.inetSocketAddress(40000, "localhost");
+    remoteAddress = SocketAddress.inetSocketAddress(8080, "remote");
+    requests = new HttpClientRequest[hosts];
+    for (int i = 0; i < hosts; i++) {
+      requests[i] = Stubs.of(HttpClientRequest.class)
+          .answer("method", HttpMethod.GET)
+          .answer("getHost", "host-" + i)
+          .create();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    metrics.close();
+  }
+
+  @Benchmark
+  public void exchange(Cursor cursor) {
+    final HTTPRequestMetrics.Metric metric = metrics.requestBegin(null, null, localAddress, remoteAddress, requests[cursor.next(hosts)]);
+    metrics.requestEnd(metric);
+    metrics.responseBegin(metric, response);
+    metrics.responseEnd(metric, response);
+  }
+}
@@ -0,0 +1,72 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.prometheus.metrics.HTTPServerPrometheusMetrics;
+import io.vertx.ext.prometheus.metrics.counters.HTTPRequestMetrics;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a request to an HTTP server, from {@code requestBegin} to {@code responseEnd}, with requests spread over
+ * a number of hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HTTPServerBenchmark {
+  @Param({"1", "100", "10000"})
+  private int hosts;
+
+  private HTTPServerPrometheusMetrics metrics;
+  private HttpServerRequest[] requests;
+  private HttpServerResponse response;
+
+  @Setup
+  public void setup() {
+    final CollectorRegistry registry = new CollectorRegistry();
+    metrics = new HTTPServerPrometheusMetrics(registry, SocketAddress.inetSocketAddress(8080, "localhost"),
+        new GaugeFactory(registry), new CounterFactory(registry), new HistogramFactory(registry));
+    response = Stubs.of(HttpServerResponse.class).answer("getStatusCode", 200).create();
+    requests = new HttpServerRequest[hosts];
+    for (int i = 0; i < hosts; i++) {
+      requests[i] = Stubs.of(HttpServerRequest.class)
+          .answer("method", HttpMethod.GET)
+          .answer("host", "host-" + i + ":8080")
+          .answer("response", response)
+          .create();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    metrics.close();
+  }
+
+  @Benchmark
+  public void request(Cursor cursor) {
+    final HTTPRequestMetrics.Metric metric = metrics.requestBegin(null, requests[cursor.next(hosts)]);
+    metrics.responseEnd(metric, response);
+  }
+}
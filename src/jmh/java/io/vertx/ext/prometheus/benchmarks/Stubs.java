@@ -0,0 +1,54 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stubs of the Vert.x request and response interfaces the SPI callbacks read from, answering by method name.
+ * Calls without arguments and with cached answers don't allocate, so they add a constant, small cost to every operation.
+ */
+final class Stubs<T> {
+  private final @NotNull Class<T> type;
+  private final @NotNull Map<String, Object> answers = new HashMap<>();
+
+  private Stubs(@NotNull Class<T> type) {
+    this.type = type;
+  }
+
+  static <T> @NotNull Stubs<T> of(@NotNull Class<T> type) {
+    return new Stubs<>(type);
+  }
+
+  @NotNull Stubs<T> answer(@NotNull String method, @Nullable Object answer) {
+    answers.put(method, answer);
+    return this;
+  }
+
+  @NotNull T create() {
+    final Map<String, Object> answers = new HashMap<>(this.answers);
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+      final Object answer = answers.get(method.getName());
+      if (answer != null || !method.getReturnType().isPrimitive()) {
+        return answer;
+      }
+      return method.getReturnType() == boolean.class ? Boolean.FALSE : defaultNumber(method.getReturnType());
+    }));
+  }
+
+  private static @NotNull Object defaultNumber(@NotNull Class<?> type) {
+    if (type == long.class) {
+      return 0L;
+    }
+    if (type == double.class) {
+      return 0d;
+    }
+    if (type == float.class) {
+      return 0f;
+    }
+    return 0;
+  }
+}
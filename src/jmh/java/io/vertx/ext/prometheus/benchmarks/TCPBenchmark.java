@@ -0,0 +1,70 @@
+package io.vertx.ext.prometheus.benchmarks;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.prometheus.metrics.NetServerPrometheusMetrics;
+import io.vertx.ext.prometheus.metrics.counters.BytesCounter;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@code bytesRead} on a TCP server, for reads spread over a number of open connections, and for reads
+ * without a connection metric.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TCPBenchmark {
+  @Param({"1", "100", "10000"})
+  private int connections;
+
+  private NetServerPrometheusMetrics metrics;
+  private BytesCounter.Connection[] connected;
+  private SocketAddress remoteAddress;
+
+  @Setup
+  public void setup() {
+    final CollectorRegistry registry = new CollectorRegistry();
+    metrics = new NetServerPrometheusMetrics(registry, SocketAddress.inetSocketAddress(9000, "localhost"), new GaugeFactory(registry), new CounterFactory(registry));
+    remoteAddress = SocketAddress.inetSocketAddress(40000, "remote");
+    connected = new BytesCounter.Connection[connections];
+    for (int i = 0; i < connections; i++) {
+      connected[i] = metrics.connected(remoteAddress, "remote");
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    for (BytesCounter.Connection connection : connected) {
+      metrics.disconnected(connection, remoteAddress);
+    }
+    metrics.close();
+  }
+
+  @Benchmark
+  public void bytesRead(Cursor cursor) {
+    metrics.bytesRead(connected[cursor.next(connections)], remoteAddress, 1024);
+  }
+
+  @Benchmark
+  public void bytesReadWithoutConnection() {
+    metrics.bytesRead(null, remoteAddress, 1024);
+  }
+}
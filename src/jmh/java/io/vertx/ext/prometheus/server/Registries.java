@@ -0,0 +1,77 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.ext.prometheus.MetricsType;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Enumeration;
+
+/**
+ * Registries populated through the metric factories, and scrapes of them as served by {@link ExpositionStream}.
+ */
+final class Registries {
+  static final int FAMILIES = 10;
+
+  private Registries() {
+  }
+
+  /**
+   * Populates a registry with series spread over {@link #FAMILIES} families of each type: half of them in counters of
+   * responses by route, two fifths in gauges of requests by host and a tenth in histograms of time by route.
+   *
+   * @param series The number of series, i.e. children of the families.
+   * @return The populated registry.
+   */
+  static @NotNull CollectorRegistry populate(int series) {
+    final CollectorRegistry registry = new CollectorRegistry();
+    final CounterFactory counters = new CounterFactory(registry);
+    final GaugeFactory gauges = new GaugeFactory(registry);
+    final HistogramFactory histograms = new HistogramFactory(registry);
+    for (int i = 0; i < series / 2; i++) {
+      counters.httpRouteResponses(family(i)).labels(server(i), route(i), "200").inc(i);
+    }
+    for (int i = 0; i < series * 2 / 5; i++) {
+      gauges.httpRequests(family(i)).labels(server(i), "GET", "host-" + i / FAMILIES % 1000, "active").set(i);
+    }
+    for (int i = 0; i < series / 10; i++) {
+      histograms.routeTimeSeconds(MetricsType.HTTPServer, family(i)).labels(server(i), route(i)).observe(i * 1000L);
+    }
+    return registry;
+  }
+
+  /**
+   * Encodes all families of the registry into chunks of {@link ExpositionStream#CHUNK_SIZE}, like a scrape.
+   */
+  static void scrape(@NotNull CollectorRegistry registry, @NotNull ExpositionFormat format, @NotNull Blackhole blackhole) {
+    final Enumeration<MetricFamilySamples> families = registry.metricFamilySamples();
+    final ExpositionEncoder encoder = format.encoder();
+    ByteBuf chunk = Unpooled.buffer(ExpositionStream.CHUNK_SIZE);
+    while (families.hasMoreElements()) {
+      encoder.encode(families.nextElement(), chunk);
+      if (chunk.readableBytes() >= ExpositionStream.CHUNK_SIZE) {
+        blackhole.consume(chunk);
+        chunk = Unpooled.buffer(ExpositionStream.CHUNK_SIZE);
+      }
+    }
+    blackhole.consume(chunk);
+  }
+
+  private static @NotNull String family(int index) {
+    return "benchmark_" + index % FAMILIES;
+  }
+
+  private static @NotNull String server(int index) {
+    return "10.0." + index / FAMILIES / 1000 % 256 + "." + index / FAMILIES / 256000 + ":8080";
+  }
+
+  private static @NotNull String route(int index) {
+    return "/route/" + index / FAMILIES % 1000;
+  }
+}
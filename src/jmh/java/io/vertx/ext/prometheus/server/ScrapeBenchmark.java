@@ -0,0 +1,92 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of a scrape of a registry populated with counters, gauges and histograms, per format.
+ * {@code textFormat} renders with the Prometheus client instead, as a reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ScrapeBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int series;
+
+  private CollectorRegistry registry;
+
+  @Setup
+  public void setup() {
+    registry = Registries.populate(series);
+  }
+
+  @Benchmark
+  public void text(Blackhole blackhole) {
+    Registries.scrape(registry, ExpositionFormat.Text, blackhole);
+  }
+
+  @Benchmark
+  public void protobuf(Blackhole blackhole) {
+    Registries.scrape(registry, ExpositionFormat.Protobuf, blackhole);
+  }
+
+  @Benchmark
+  public void textFormat(Blackhole blackhole) throws IOException {
+    TextFormat.write004(new Discarding(blackhole), registry.metricFamilySamples());
+  }
+
+  /**
+   * Hands the written characters to the blackhole instead of keeping them.
+   */
+  private static final class Discarding extends Writer {
+    private final @NotNull Blackhole blackhole;
+
+    Discarding(@NotNull Blackhole blackhole) {
+      this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write(@NotNull char[] buffer, int offset, int length) {
+      blackhole.consume(buffer);
+    }
+
+    @Override
+    public void write(@NotNull String string) {
+      blackhole.consume(string);
+    }
+
+    @Override
+    public void write(int character) {
+      blackhole.consume(character);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
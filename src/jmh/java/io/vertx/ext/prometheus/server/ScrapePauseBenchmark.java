@@ -0,0 +1,75 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.vertx.ext.prometheus.MetricsType;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of recording while the registry is scraped over and over, by one scraping and three recording
+ * threads. Compare the percentiles of {@code scraped:record} with those of {@code recordAlone}, which is
+ * best run with as many threads, i.e. {@code -Pjmh.threads=3}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ScrapePauseBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int series;
+
+  @Param({"Text", "Protobuf"})
+  private ExpositionFormat format;
+
+  private CollectorRegistry registry;
+  private Counter.Child responses;
+  private TimeHistogram.Child time;
+
+  @Setup
+  public void setup() {
+    registry = Registries.populate(series);
+    // children of the populated families, as resolved by the metrics recording them
+    responses = new CounterFactory(registry).httpRouteResponses("benchmark_0").labels("10.0.0.0:8080", "/route/0", "200");
+    time = new HistogramFactory(registry).routeTimeSeconds(MetricsType.HTTPServer, "benchmark_0").labels("10.0.0.0:8080", "/route/0");
+  }
+
+  @Benchmark
+  @Group("scraped")
+  @GroupThreads(1)
+  public void scrape(Blackhole blackhole) {
+    Registries.scrape(registry, format, blackhole);
+  }
+
+  @Benchmark
+  @Group("scraped")
+  @GroupThreads(3)
+  public void record() {
+    recordAlone();
+  }
+
+  @Benchmark
+  public void recordAlone() {
+    responses.inc();
+    time.observe(System.nanoTime() & 0xFFFFF);
+  }
+}
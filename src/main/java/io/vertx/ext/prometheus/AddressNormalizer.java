@@ -0,0 +1,23 @@
+package io.vertx.ext.prometheus;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Maps event bus addresses to the value of the {@code address} label, e.g. to collapse {@code user.<id>.inbox}
+ * addresses into a single series. Addresses generated by Vert.x (reply addresses) are collapsed before the normalizer
+ * is consulted. The result for an address is cached, so the normalizer must always return the same value for it.
+ */
+@FunctionalInterface
+public interface AddressNormalizer {
+
+  /**
+   * Keeps addresses as they are.
+   */
+  @NotNull AddressNormalizer IDENTITY = address -> address;
+
+  /**
+   * @param address event bus address
+   * @return label value for the address
+   */
+  @NotNull String normalize(@NotNull String address);
+}
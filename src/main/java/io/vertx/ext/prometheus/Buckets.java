@@ -0,0 +1,196 @@
+package io.vertx.ext.prometheus;
+
+import io.prometheus.client.Collector;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Bucket layout of a histogram of durations in seconds.
+ * The {@code +Inf} bucket is implicit and not part of the bounds.
+ */
+public final class Buckets {
+  private static final @NotNull Buckets DEFAULTS = explicit(.005, .01, .025, .05, .075, .1, .25, .5, .75, 1, 2.5, 5, 7.5, 10);
+
+  private final @NotNull double[] bounds;
+  private final int lowestShift;
+  private final int highestShift;
+  private final int precision;
+
+  private Buckets(@NotNull double[] bounds, int lowestShift, int highestShift, int precision) {
+    this.bounds = bounds;
+    this.lowestShift = lowestShift;
+    this.highestShift = highestShift;
+    this.precision = precision;
+  }
+
+  /**
+   * Default buckets of the Prometheus client, from 5 milliseconds to 10 seconds.
+   *
+   * @return default layout
+   */
+  public static @NotNull Buckets defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * @param bounds upper bounds in seconds, in increasing order
+   * @return layout with the given bounds
+   */
+  public static @NotNull Buckets explicit(@NotNull double... bounds) {
+    if (bounds.length == 0) {
+      throw new IllegalArgumentException("At least one bucket bound is required");
+    }
+    for (int i = 1; i < bounds.length; i++) {
+      if (bounds[i] <= bounds[i - 1]) {
+        throw new IllegalArgumentException("Bucket bounds must be in increasing order");
+      }
+    }
+    return new Buckets(bounds.clone(), -1, -1, -1);
+  }
+
+  /**
+   * @param start upper bound of the first bucket in seconds
+   * @param width width of each bucket in seconds
+   * @param count number of buckets
+   * @return layout of equally wide buckets
+   */
+  public static @NotNull Buckets linear(double start, double width, int count) {
+    final double[] bounds = new double[count];
+    for (int i = 0; i < count; i++) {
+      bounds[i] = start + i * width;
+    }
+    return explicit(bounds);
+  }
+
+  /**
+   * @param start upper bound of the first bucket in seconds
+   * @param factor factor between the bounds of consecutive buckets
+   * @param count number of buckets
+   * @return layout of exponentially growing buckets
+   */
+  public static @NotNull Buckets exponential(double start, double factor, int count) {
+    final double[] bounds = new double[count];
+    for (int i = 0; i < count; i++) {
+      bounds[i] = start * Math.pow(factor, i);
+    }
+    return explicit(bounds);
+  }
+
+  /**
+   * Log-linear layout: every power of two of nanoseconds between the lowest and the highest bound is split into
+   * {@code 2^precision} equally wide buckets, so the relative error is at most {@code 2^-precision}.
+   * The bucket of a duration is computed from its bits, without searching the bounds.
+   *
+   * @param lowest lowest bound in nanoseconds, rounded down to a power of two
+   * @param highest highest bound in nanoseconds, rounded up to a power of two
+   * @param precision number of bits of sub-buckets per power of two, from 0 to 8
+   * @return log-linear layout
+   */
+  public static @NotNull Buckets logLinear(long lowest, long highest, int precision) {
+    if (precision < 0 || precision > 8) {
+      throw new IllegalArgumentException("Precision must be between 0 and 8 bits");
+    }
+    if (lowest <= 0 || highest <= lowest) {
+      throw new IllegalArgumentException("Bounds must be positive and increasing");
+    }
+    final int lowestShift = Math.max(63 - Long.numberOfLeadingZeros(lowest), precision);
+    final int highestShift = Math.max(64 - Long.numberOfLeadingZeros(highest - 1), lowestShift + 1);
+    if (highestShift > 62) {
+      throw new IllegalArgumentException("Highest bound is too large");
+    }
+    final int subBuckets = 1 << precision;
+    final double[] bounds = new double[1 + (highestShift - lowestShift) * subBuckets];
+    bounds[0] = (1L << lowestShift) / Collector.NANOSECONDS_PER_SECOND;
+    for (int shift = lowestShift; shift < highestShift; shift++) {
+      for (int sub = 0; sub < subBuckets; sub++) {
+        final long bound = (1L << shift) + ((sub + 1L) << (shift - precision));
+        bounds[1 + (shift - lowestShift) * subBuckets + sub] = bound / Collector.NANOSECONDS_PER_SECOND;
+      }
+    }
+    return new Buckets(bounds, lowestShift, highestShift, precision);
+  }
+
+  /**
+   * @param json layout as returned by {@link #toJson()}
+   * @return layout described by the JSON object
+   */
+  public static @NotNull Buckets fromJson(@NotNull JsonObject json) {
+    final String type = json.getString("type", "explicit");
+    switch (type) {
+      case "explicit":
+        return explicit(json.getJsonArray("bounds").stream().mapToDouble(b -> ((Number) b).doubleValue()).toArray());
+      case "logLinear":
+        return logLinear(json.getLong("lowest"), json.getLong("highest"), json.getInteger("precision"));
+      default:
+        throw new IllegalArgumentException("Unknown buckets type: " + type);
+    }
+  }
+
+  public @NotNull JsonObject toJson() {
+    if (precision < 0) {
+      final JsonArray array = new JsonArray();
+      Arrays.stream(bounds).forEach(array::add);
+      return new JsonObject().put("type", "explicit").put("bounds", array);
+    }
+    return new JsonObject()
+        .put("type", "logLinear")
+        .put("lowest", 1L << lowestShift)
+        .put("highest", 1L << highestShift)
+        .put("precision", precision);
+  }
+
+  /**
+   * @return upper bounds in seconds, without {@code +Inf}
+   */
+  public @NotNull double[] bounds() {
+    return bounds.clone();
+  }
+
+  /**
+   * @param nanos duration in nanoseconds
+   * @return index of the bucket of the duration, {@code bounds().length} for the {@code +Inf} bucket
+   */
+  public int index(long nanos) {
+    if (precision < 0) {
+      return search(nanos / Collector.NANOSECONDS_PER_SECOND);
+    }
+    // bucket bounds are inclusive, so a duration equal to a bound has to end up below it
+    final long value = nanos - 1;
+    if (value < 1L << lowestShift) {
+      return 0;
+    }
+    final int shift = 63 - Long.numberOfLeadingZeros(value);
+    if (shift >= highestShift) {
+      return bounds.length;
+    }
+    final int sub = (int) (value >>> (shift - precision)) & ((1 << precision) - 1);
+    return 1 + ((shift - lowestShift) << precision) + sub;
+  }
+
+  private int search(double seconds) {
+    int low = 0;
+    int high = bounds.length;
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+      if (seconds <= bounds[middle]) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return this == other || other instanceof Buckets && Arrays.equals(bounds, ((Buckets) other).bounds);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(bounds);
+  }
+}
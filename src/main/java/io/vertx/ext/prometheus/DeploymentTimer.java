@@ -0,0 +1,72 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Handler;
+import io.vertx.core.Verticle;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.Deployment;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.spi.metrics.VertxMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Deploys and undeploys verticles, observing how long it takes in {@code vertx_verticle_time_seconds} by verticle
+ * class and phase. The metrics SPI only reports deployments once they completed, so the time is taken around the
+ * deployment calls instead. Deployments of several instances are timed as a whole.
+ */
+public final class DeploymentTimer {
+  private static final @NotNull String DEPLOY = "deploy";
+  private static final @NotNull String UNDEPLOY = "undeploy";
+
+  private DeploymentTimer() {
+  }
+
+  /**
+   * @param vertx The Vert.x instance to deploy with.
+   * @param verticle The verticle instance.
+   * @param options The deployment options.
+   * @param handler Notified with the deployment ID once deployed.
+   */
+  public static void deploy(@NotNull Vertx vertx, @NotNull Verticle verticle, @NotNull DeploymentOptions options, @NotNull Handler<AsyncResult<String>> handler) {
+    final long start = System.nanoTime();
+    vertx.deployVerticle(verticle, options, timed(vertx, verticle.getClass().getName(), DEPLOY, start, handler));
+  }
+
+  /**
+   * @param vertx The Vert.x instance to deploy with.
+   * @param name The name of the verticle, e.g. its class name.
+   * @param options The deployment options.
+   * @param handler Notified with the deployment ID once deployed.
+   */
+  public static void deploy(@NotNull Vertx vertx, @NotNull String name, @NotNull DeploymentOptions options, @NotNull Handler<AsyncResult<String>> handler) {
+    final long start = System.nanoTime();
+    vertx.deployVerticle(name, options, timed(vertx, name, DEPLOY, start, handler));
+  }
+
+  /**
+   * @param vertx The Vert.x instance the verticle was deployed with.
+   * @param deploymentID The deployment ID.
+   * @param handler Notified once undeployed.
+   */
+  public static void undeploy(@NotNull Vertx vertx, @NotNull String deploymentID, @NotNull Handler<AsyncResult<Void>> handler) {
+    final Deployment deployment = ((VertxInternal) vertx).getDeployment(deploymentID);
+    if (deployment == null) {
+      vertx.undeploy(deploymentID, handler);
+      return;
+    }
+    final long start = System.nanoTime();
+    vertx.undeploy(deploymentID, timed(vertx, deployment.verticleIdentifier(), UNDEPLOY, start, handler));
+  }
+
+  private static <T> @NotNull Handler<AsyncResult<T>> timed(@NotNull Vertx vertx, @NotNull String verticle, @NotNull String phase, long start, @NotNull Handler<AsyncResult<T>> handler) {
+    return result -> {
+      final @Nullable VertxMetrics metrics = ((VertxInternal) vertx).metricsSPI();
+      if (result.succeeded() && metrics instanceof VertxPrometheusMetrics) {
+        ((VertxPrometheusMetrics) metrics).verticleTime(verticle, phase, System.nanoTime() - start);
+      }
+      handler.handle(result);
+    };
+  }
+}
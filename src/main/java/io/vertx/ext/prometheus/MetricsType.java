@@ -45,5 +45,10 @@ public enum MetricsType {
   /**
    * Timers metrics.
    */
-  Timers
+  Timers,
+
+  /**
+   * Event loops metrics. Disabled by default, as they run a periodic probe task on every event loop.
+   */
+  EventLoops
 }
@@ -0,0 +1,53 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.prometheus.metrics.HTTPServerPrometheusMetrics;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.RoutingContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Labels the latency and responses of HTTP server requests by the template of the route which ends their headers,
+ * e.g. {@code /users/:id}. Mount it in front of the other routes, and enable {@link VertxPrometheusOptions#setRouteLabels(boolean)}:
+ * <pre>
+ * router.route().handler(RouteLabelHandler.create());
+ * </pre>
+ * Sub-routers route requests with routing contexts of their own, so mount it in front of the routes of every
+ * sub-router as well; the template is then taken from the innermost routing context, prefixed by its mount point.
+ * Otherwise the requests of a sub-router are labelled by the route it is mounted on.
+ * Requests ended by routes without a path, or by regular expressions, are labelled {@value #UNKNOWN}.
+ */
+public final class RouteLabelHandler implements Handler<RoutingContext> {
+  private static final @NotNull String UNKNOWN = "unknown";
+  private static final @NotNull String INNERMOST = RouteLabelHandler.class.getName();
+
+  private RouteLabelHandler() {
+  }
+
+  public static @NotNull RouteLabelHandler create() {
+    return new RouteLabelHandler();
+  }
+
+  /**
+   * The routing contexts of sub-routers share the data of the outermost one, which ends the headers.
+   */
+  @Override
+  public void handle(@NotNull RoutingContext context) {
+    if (context.get(INNERMOST) == null) {
+      context.addHeadersEndHandler(v -> HTTPServerPrometheusMetrics.route(context.response(), template(context.get(INNERMOST))));
+    }
+    context.put(INNERMOST, context);
+    context.next();
+  }
+
+  private static @NotNull String template(@NotNull RoutingContext context) {
+    final Route route = context.currentRoute();
+    final String path = route == null ? null : route.getPath();
+    if (path == null) {
+      return UNKNOWN;
+    }
+    final @Nullable String mountPoint = context.mountPoint();
+    return mountPoint == null ? path : mountPoint + path;
+  }
+}
@@ -11,6 +11,7 @@ import io.vertx.core.http.HttpClient;
 import io.vertx.core.http.HttpClientOptions;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.impl.VertxInternal;
 import io.vertx.core.metrics.impl.DummyVertxMetrics;
 import io.vertx.core.net.NetClientOptions;
 import io.vertx.core.net.NetServerOptions;
@@ -22,6 +23,7 @@ import io.vertx.core.spi.metrics.HttpServerMetrics;
 import io.vertx.core.spi.metrics.PoolMetrics;
 import io.vertx.core.spi.metrics.TCPMetrics;
 import io.vertx.ext.prometheus.metrics.DatagramSocketPrometheusMetrics;
+import io.vertx.ext.prometheus.metrics.EventLoopPrometheusMetrics;
 import io.vertx.ext.prometheus.metrics.EventBusPrometheusMetrics;
 import io.vertx.ext.prometheus.metrics.HTTPClientPrometheusMetrics;
 import io.vertx.ext.prometheus.metrics.HTTPServerPrometheusMetrics;
@@ -29,14 +31,24 @@ import io.vertx.ext.prometheus.metrics.NetClientPrometheusMetrics;
 import io.vertx.ext.prometheus.metrics.NetServerPrometheusMetrics;
 import io.vertx.ext.prometheus.metrics.PoolPrometheusMetrics;
 import io.vertx.ext.prometheus.metrics.PrometheusMetrics;
+import io.vertx.ext.prometheus.metrics.counters.DeploymentMetrics;
+import io.vertx.ext.prometheus.metrics.counters.TimerLifetimes;
 import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.Family;
 import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
 import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.SeriesLimit;
+import io.vertx.ext.prometheus.metrics.factories.SeriesTtl;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
+import io.vertx.ext.prometheus.server.ClusterSnapshots;
+import io.vertx.ext.prometheus.server.MetricsPusher;
+import io.vertx.ext.prometheus.server.MetricsServer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import static io.vertx.ext.prometheus.MetricsType.DatagramSocket;
 import static io.vertx.ext.prometheus.MetricsType.EventBus;
+import static io.vertx.ext.prometheus.MetricsType.EventLoops;
 import static io.vertx.ext.prometheus.MetricsType.HTTPClient;
 import static io.vertx.ext.prometheus.MetricsType.HTTPServer;
 import static io.vertx.ext.prometheus.MetricsType.NetClient;
@@ -53,15 +65,53 @@ public final class VertxPrometheusMetrics extends DummyVertxMetrics {
   private final @NotNull GaugeFactory gauges;
   private final @NotNull CounterFactory counters;
   private final @NotNull HistogramFactory histograms;
+  private final @NotNull SeriesLimit limit;
+  private final @NotNull SeriesTtl ttl;
+  private final @Nullable EventLoopPrometheusMetrics eventLoops;
+  private final @Nullable Family<TimeHistogram.Child> verticleTime;
 
   public VertxPrometheusMetrics(@NotNull Vertx vertx, @NotNull VertxPrometheusOptions options) {
     this.vertx = vertx;
     this.options = options;
-    this.verticleMetrics = options.isEnabled(Verticles) ? new VerticlePrometheusMetrics(options.getRegistry()) : new VerticleDummyMetrics();
-    this.timerMetrics = options.isEnabled(Timers) ? new TimerPrometheusMetrics(options.getRegistry()) : new TimerDummyMetrics();
-    this.gauges = new GaugeFactory(options.getRegistry());
-    this.counters = new CounterFactory(options.getRegistry());
-    this.histograms = new HistogramFactory(options.getRegistry());
+    this.limit = SeriesLimit.create(options.getRegistry(), options.getMaxSeriesPerFamily());
+    this.ttl = SeriesTtl.create(options.getSeriesTtl());
+    this.gauges = new GaugeFactory(options.getRegistry(), options.isShardedCollectors(), limit, ttl);
+    this.counters = new CounterFactory(options.getRegistry(), options.isShardedCollectors(), limit, ttl);
+    this.histograms = new HistogramFactory(options.getRegistry(), limit, options::getBuckets);
+    this.verticleMetrics = options.isEnabled(Verticles) ? new VerticlePrometheusMetrics(options.getRegistry(), gauges.verticles()) : new VerticleDummyMetrics();
+    this.verticleTime = options.isEnabled(Verticles) ? histograms.verticleTimeSeconds() : null;
+    this.timerMetrics = options.isEnabled(Timers)
+        ? new TimerPrometheusMetrics(options.getRegistry(), gauges.timers(), options.isTimerLifetimes() ? new TimerLifetimes(histograms.timerLifetimeSeconds()) : null)
+        : new TimerDummyMetrics();
+    this.eventLoops = options.isEnabled(EventLoops)
+        ? new EventLoopPrometheusMetrics(((VertxInternal) vertx).getEventLoopGroup(), options.getEventLoopProbeInterval(), options.getPeakWindow(), gauges, histograms)
+        : null;
+  }
+
+  @Override
+  public void eventBusInitialized(@NotNull EventBus bus) {
+    ttl.start(vertx);
+    if (options.isClusterScrape()) {
+      ClusterSnapshots.respond(vertx, options.getRegistry());
+    }
+    if (options.isEmbeddedServerEnabled()) {
+      MetricsServer
+          .create(vertx)
+          .setCompressionSupported(options.isCompressionSupported())
+          .setScrapeCacheTtl(options.getScrapeCacheTtl())
+          .setClusterScrapeTimeout(options.isClusterScrape() ? options.getClusterScrapeTimeout() : 0)
+          .apply(options.getRegistry(), options.getFormat())
+          .apply(options.getAddress());
+    }
+    if (options.isPushEnabled()) {
+      // pushes its last snapshot as a close hook, since close() is only called once the event loops are shut down
+      ((VertxInternal) vertx).addCloseHook(MetricsPusher
+          .create(vertx, options.getRegistry(), options.getPushAddress())
+          .setFormat(options.getFormat())
+          .setJob(options.getPushJob())
+          .setInterval(options.getPushInterval())
+          .start());
+    }
   }
 
   @Override
@@ -87,14 +137,14 @@ public final class VertxPrometheusMetrics extends DummyVertxMetrics {
   @Override
   public @NotNull EventBusMetrics<?> createMetrics(@NotNull EventBus eventBus) {
     return options.isEnabled(EventBus)
-        ? new EventBusPrometheusMetrics(options.getRegistry())
+        ? new EventBusPrometheusMetrics(options.getRegistry(), options.getAddressNormalizer(), limit, ttl, options.getBuckets(EventBus, EventBusPrometheusMetrics.TIME), deployments("eventbus"))
         : super.createMetrics(eventBus);
   }
 
   @Override
   public @NotNull HttpServerMetrics<?, ?, ?> createMetrics(@NotNull HttpServer httpServer, @NotNull SocketAddress localAddress, @NotNull HttpServerOptions httpServerOptions) {
     return options.isEnabled(HTTPServer)
-        ? new HTTPServerPrometheusMetrics(options.getRegistry(), localAddress, gauges, counters, histograms)
+        ? new HTTPServerPrometheusMetrics(options.getRegistry(), localAddress, gauges, counters, histograms, options.isRouteLabels(), deployments("httpserver"))
         : super.createMetrics(httpServer, localAddress, httpServerOptions);
   }
 
@@ -129,7 +179,7 @@ public final class VertxPrometheusMetrics extends DummyVertxMetrics {
   @Override
   public @NotNull <P> PoolMetrics<?> createMetrics(@NotNull P pool, @NotNull String poolType, @NotNull String poolName, int maxPoolSize) {
     return options.isEnabled(Pools)
-        ? new PoolPrometheusMetrics(options.getRegistry(), poolType, poolName, maxPoolSize)
+        ? new PoolPrometheusMetrics(options.getRegistry(), poolType, poolName, maxPoolSize, options.getPeakWindow(), gauges, counters, histograms)
         : super.createMetrics(pool, poolType, poolName, maxPoolSize);
   }
 
@@ -145,9 +195,27 @@ public final class VertxPrometheusMetrics extends DummyVertxMetrics {
 
   @Override
   public void close() {
+    ttl.stop(vertx);
+    if (eventLoops != null) {
+      eventLoops.close();
+    }
     gauges.close();
     counters.close();
     histograms.close();
+    limit.close(options.getRegistry());
+  }
+
+  /**
+   * Observes the time a verticle took to deploy or undeploy, as timed by {@link DeploymentTimer}.
+   */
+  void verticleTime(@NotNull String verticle, @NotNull String phase, long nanos) {
+    if (verticleTime != null) {
+      verticleTime.labels(DeploymentMetrics.identifier(verticle), phase).observe(nanos);
+    }
+  }
+
+  private @Nullable DeploymentMetrics deployments(@NotNull String type) {
+    return options.isDeploymentLabels() ? new DeploymentMetrics(type, histograms) : null;
   }
 
   private static @NotNull String getLocalAddress(@Nullable String address) {
@@ -167,12 +235,11 @@ public final class VertxPrometheusMetrics extends DummyVertxMetrics {
   }
 
   private static final class VerticlePrometheusMetrics extends PrometheusMetrics implements VerticleMetrics {
-    private static final @NotNull Gauge collector =
-        Gauge.build("vertx_verticle_number", "Deployed verticles number").labelNames("class").create();
+    private final @NotNull Family<Gauge.Child> collector;
 
-    public VerticlePrometheusMetrics(@NotNull CollectorRegistry registry) {
+    public VerticlePrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull Family<Gauge.Child> collector) {
       super(registry);
-      register(collector);
+      this.collector = collector;
     }
 
     @Override
@@ -187,22 +254,29 @@ public final class VertxPrometheusMetrics extends DummyVertxMetrics {
   }
 
   private static final class TimerPrometheusMetrics extends PrometheusMetrics implements TimerMetrics {
-    private static final @NotNull Gauge collector =
-        Gauge.build("vertx_timers_number", "Timers number").labelNames("state").create();
+    private final @NotNull Family<Gauge.Child> collector;
+    private final @Nullable TimerLifetimes lifetimes;
 
-    public TimerPrometheusMetrics(@NotNull CollectorRegistry registry) {
+    public TimerPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull Family<Gauge.Child> collector, @Nullable TimerLifetimes lifetimes) {
       super(registry);
-      register(collector);
+      this.collector = collector;
+      this.lifetimes = lifetimes;
     }
 
     @Override
     public void created(long id) {
+      if (lifetimes != null) {
+        lifetimes.created(id);
+      }
       collector.labels("created").inc();
       collector.labels("active").inc();
     }
 
     @Override
     public void ended(long id, boolean cancelled) {
+      if (lifetimes != null) {
+        lifetimes.ended(id, cancelled);
+      }
       if (cancelled) {
         collector.labels("cancelled").inc();
       }
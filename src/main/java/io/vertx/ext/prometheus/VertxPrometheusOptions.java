@@ -4,30 +4,89 @@ import io.prometheus.client.CollectorRegistry;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.metrics.MetricsOptions;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.prometheus.server.ExpositionFormat;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public final class VertxPrometheusOptions extends MetricsOptions {
   private static final @NotNull JsonArray EMPTY_METRICS = new JsonArray(Collections.emptyList());
 
   private static final @NotNull String DEFAULT_HOST = "localhost";
   private static final int DEFAULT_PORT = 9090;
+  private static final long DEFAULT_EVENT_LOOP_PROBE_INTERVAL = 100;
+  private static final long DEFAULT_PEAK_WINDOW = 60_000;
+  private static final int DEFAULT_PUSH_PORT = 9091;
+  private static final @NotNull String DEFAULT_PUSH_JOB = "vertx";
+  private static final long DEFAULT_PUSH_INTERVAL = 10_000;
+  private static final long DEFAULT_CLUSTER_SCRAPE_TIMEOUT = 1_000;
 
   private final @NotNull EnumSet<MetricsType> metrics;
+  private final @NotNull Map<MetricsType, Buckets> typeBuckets = new EnumMap<>(MetricsType.class);
+  private final @NotNull Map<String, Buckets> familyBuckets = new HashMap<>();
 
   private @NotNull CollectorRegistry registry = CollectorRegistry.defaultRegistry;
+  private @NotNull String host = DEFAULT_HOST;
+  private int port = DEFAULT_PORT;
+  private boolean embeddedServerEnabled = true;
+  private @NotNull ExpositionFormat format = ExpositionFormat.Text;
+  private boolean compressionSupported;
+  private long scrapeCacheTtl;
+  private boolean pushEnabled;
+  private @NotNull String pushHost = DEFAULT_HOST;
+  private int pushPort = DEFAULT_PUSH_PORT;
+  private @NotNull String pushJob = DEFAULT_PUSH_JOB;
+  private long pushInterval = DEFAULT_PUSH_INTERVAL;
+  private boolean clusterScrape;
+  private long clusterScrapeTimeout = DEFAULT_CLUSTER_SCRAPE_TIMEOUT;
+  private boolean shardedCollectors;
+  private int maxSeriesPerFamily;
+  private long seriesTtl;
+  private boolean routeLabels;
+  private boolean timerLifetimes;
+  private boolean deploymentLabels;
+  private long eventLoopProbeInterval = DEFAULT_EVENT_LOOP_PROBE_INTERVAL;
+  private long peakWindow = DEFAULT_PEAK_WINDOW;
+  private @NotNull AddressNormalizer addressNormalizer = AddressNormalizer.IDENTITY;
 
   public VertxPrometheusOptions() {
     super();
-    metrics = EnumSet.allOf(MetricsType.class);
+    metrics = EnumSet.complementOf(EnumSet.of(MetricsType.EventLoops));
   }
 
   public VertxPrometheusOptions(@NotNull VertxPrometheusOptions other) {
     super(other);
     registry = other.registry;
+    host = other.host;
+    port = other.port;
+    embeddedServerEnabled = other.embeddedServerEnabled;
+    format = other.format;
+    compressionSupported = other.compressionSupported;
+    scrapeCacheTtl = other.scrapeCacheTtl;
+    pushEnabled = other.pushEnabled;
+    pushHost = other.pushHost;
+    pushPort = other.pushPort;
+    pushJob = other.pushJob;
+    pushInterval = other.pushInterval;
+    clusterScrape = other.clusterScrape;
+    clusterScrapeTimeout = other.clusterScrapeTimeout;
+    shardedCollectors = other.shardedCollectors;
+    maxSeriesPerFamily = other.maxSeriesPerFamily;
+    seriesTtl = other.seriesTtl;
+    routeLabels = other.routeLabels;
+    timerLifetimes = other.timerLifetimes;
+    deploymentLabels = other.deploymentLabels;
+    eventLoopProbeInterval = other.eventLoopProbeInterval;
+    peakWindow = other.peakWindow;
+    typeBuckets.putAll(other.typeBuckets);
+    familyBuckets.putAll(other.familyBuckets);
+    addressNormalizer = other.addressNormalizer;
     metrics = EnumSet.copyOf(other.metrics);
   }
 
@@ -37,12 +96,65 @@ public final class VertxPrometheusOptions extends MetricsOptions {
     for (Object metric : json.getJsonArray("metrics", EMPTY_METRICS).getList()) {
       metrics.add(MetricsType.valueOf(metric.toString()));
     }
+    host = json.getString("host", DEFAULT_HOST);
+    port = json.getInteger("port", DEFAULT_PORT);
+    embeddedServerEnabled = json.getBoolean("embeddedServerEnabled", true);
+    format = ExpositionFormat.valueOf(json.getString("format", ExpositionFormat.Text.name()));
+    compressionSupported = json.getBoolean("compressionSupported", false);
+    scrapeCacheTtl = json.getLong("scrapeCacheTtl", 0L);
+    pushEnabled = json.getBoolean("pushEnabled", false);
+    pushHost = json.getString("pushHost", DEFAULT_HOST);
+    pushPort = json.getInteger("pushPort", DEFAULT_PUSH_PORT);
+    pushJob = json.getString("pushJob", DEFAULT_PUSH_JOB);
+    pushInterval = json.getLong("pushInterval", DEFAULT_PUSH_INTERVAL);
+    clusterScrape = json.getBoolean("clusterScrape", false);
+    clusterScrapeTimeout = json.getLong("clusterScrapeTimeout", DEFAULT_CLUSTER_SCRAPE_TIMEOUT);
+    shardedCollectors = json.getBoolean("shardedCollectors", false);
+    maxSeriesPerFamily = json.getInteger("maxSeriesPerFamily", 0);
+    seriesTtl = json.getLong("seriesTtl", 0L);
+    routeLabels = json.getBoolean("routeLabels", false);
+    timerLifetimes = json.getBoolean("timerLifetimes", false);
+    deploymentLabels = json.getBoolean("deploymentLabels", false);
+    eventLoopProbeInterval = json.getLong("eventLoopProbeInterval", DEFAULT_EVENT_LOOP_PROBE_INTERVAL);
+    peakWindow = json.getLong("peakWindow", DEFAULT_PEAK_WINDOW);
+    json.getJsonObject("typeBuckets", new JsonObject()).forEach(entry ->
+        typeBuckets.put(MetricsType.valueOf(entry.getKey()), Buckets.fromJson((JsonObject) entry.getValue())));
+    json.getJsonObject("familyBuckets", new JsonObject()).forEach(entry ->
+        familyBuckets.put(entry.getKey(), Buckets.fromJson((JsonObject) entry.getValue())));
   }
 
   @Override
   public @NotNull JsonObject toJson() {
     final JsonObject entries = super.toJson();
-    entries.put("metrics", new JsonArray(new ArrayList<>(metrics)));
+    entries.put("enabled", isEnabled());
+    entries.put("metrics", new JsonArray(metrics.stream().map(MetricsType::name).collect(Collectors.toList())));
+    entries.put("host", host);
+    entries.put("port", port);
+    entries.put("embeddedServerEnabled", embeddedServerEnabled);
+    entries.put("format", format.name());
+    entries.put("compressionSupported", compressionSupported);
+    entries.put("scrapeCacheTtl", scrapeCacheTtl);
+    entries.put("pushEnabled", pushEnabled);
+    entries.put("pushHost", pushHost);
+    entries.put("pushPort", pushPort);
+    entries.put("pushJob", pushJob);
+    entries.put("pushInterval", pushInterval);
+    entries.put("clusterScrape", clusterScrape);
+    entries.put("clusterScrapeTimeout", clusterScrapeTimeout);
+    entries.put("shardedCollectors", shardedCollectors);
+    entries.put("maxSeriesPerFamily", maxSeriesPerFamily);
+    entries.put("seriesTtl", seriesTtl);
+    entries.put("routeLabels", routeLabels);
+    entries.put("timerLifetimes", timerLifetimes);
+    entries.put("deploymentLabels", deploymentLabels);
+    entries.put("eventLoopProbeInterval", eventLoopProbeInterval);
+    entries.put("peakWindow", peakWindow);
+    final JsonObject types = new JsonObject();
+    typeBuckets.forEach((type, buckets) -> types.put(type.name(), buckets.toJson()));
+    entries.put("typeBuckets", types);
+    final JsonObject families = new JsonObject();
+    familyBuckets.forEach((family, buckets) -> families.put(family, buckets.toJson()));
+    entries.put("familyBuckets", families);
     return entries;
   }
 
@@ -53,7 +165,7 @@ public final class VertxPrometheusOptions extends MetricsOptions {
   }
 
   /**
-   * Enable metrics by type.
+   * Enable metrics by type. All types but {@link MetricsType#EventLoops} are enabled by default.
    *
    * @param type metrics type to enable
    * @return a reference to this, so the API can be used fluently
@@ -104,4 +216,503 @@ public final class VertxPrometheusOptions extends MetricsOptions {
     return this;
   }
 
+  /**
+   * Enable or disable the embedded metrics server. It is enabled by default.
+   *
+   * @param enable true to start the embedded server with Vert.x
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions enableEmbeddedServer(boolean enable) {
+    this.embeddedServerEnabled = enable;
+    return this;
+  }
+
+  /**
+   * Check whether the embedded metrics server is enabled.
+   *
+   * @return true if the embedded server is started with Vert.x
+   */
+  public boolean isEmbeddedServerEnabled() {
+    return embeddedServerEnabled;
+  }
+
+  /**
+   * Set the host the embedded metrics server binds to. Default is {@value #DEFAULT_HOST}.
+   *
+   * @param host the host name or IP address
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setHost(@NotNull String host) {
+    this.host = host;
+    return this;
+  }
+
+  /**
+   * Set the port the embedded metrics server listens on. Default is {@value #DEFAULT_PORT}.
+   *
+   * @param port the port
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setPort(int port) {
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * Address of the embedded metrics server.
+   *
+   * @return host and port to listen on
+   */
+  public @NotNull SocketAddress getAddress() {
+    return SocketAddress.inetSocketAddress(port, host);
+  }
+
+  /**
+   * Current exposition format of the embedded metrics server.
+   *
+   * @return format
+   */
+  public @NotNull ExpositionFormat getFormat() {
+    return format;
+  }
+
+  /**
+   * Set the exposition format of the embedded metrics server. Default is {@link ExpositionFormat#Text}.
+   *
+   * @param format the exposition format
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setFormat(@NotNull ExpositionFormat format) {
+    this.format = format;
+    return this;
+  }
+
+  /**
+   * Check whether the embedded metrics server compresses responses.
+   *
+   * @return true if gzip or deflate is used when the scraper accepts it
+   */
+  public boolean isCompressionSupported() {
+    return compressionSupported;
+  }
+
+  /**
+   * Compress responses of the embedded metrics server with gzip or deflate, as negotiated via the
+   * {@code Accept-Encoding} header. Default is false.
+   *
+   * @param supported true to enable compression
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setCompressionSupported(boolean supported) {
+    this.compressionSupported = supported;
+    return this;
+  }
+
+  /**
+   * Time to live of rendered scrape responses of the embedded metrics server.
+   *
+   * @return time to live in milliseconds, {@code 0} if caching is disabled
+   */
+  public long getScrapeCacheTtl() {
+    return scrapeCacheTtl;
+  }
+
+  /**
+   * Reuse rendered scrape responses of the embedded metrics server for the given time, per format and name filter.
+   * Concurrent scrapes share a single render. Default is {@code 0}, which disables caching.
+   *
+   * @param ttl time to live in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setScrapeCacheTtl(long ttl) {
+    this.scrapeCacheTtl = ttl;
+    return this;
+  }
+
+  /**
+   * Enable or disable pushing the registry periodically to a Pushgateway, and once more when Vert.x is closed.
+   * It is disabled by default.
+   *
+   * @param enable true to push metrics
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions enablePush(boolean enable) {
+    this.pushEnabled = enable;
+    return this;
+  }
+
+  /**
+   * Check whether metrics are pushed to a Pushgateway.
+   *
+   * @return true if the registry is pushed
+   */
+  public boolean isPushEnabled() {
+    return pushEnabled;
+  }
+
+  /**
+   * Set the host of the Pushgateway. Default is {@value #DEFAULT_HOST}.
+   *
+   * @param host the host name or IP address
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setPushHost(@NotNull String host) {
+    this.pushHost = host;
+    return this;
+  }
+
+  /**
+   * Set the port of the Pushgateway. Default is {@value #DEFAULT_PUSH_PORT}.
+   *
+   * @param port the port
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setPushPort(int port) {
+    this.pushPort = port;
+    return this;
+  }
+
+  /**
+   * Address of the Pushgateway.
+   *
+   * @return host and port to push to
+   */
+  public @NotNull SocketAddress getPushAddress() {
+    return SocketAddress.inetSocketAddress(pushPort, pushHost);
+  }
+
+  /**
+   * Job the pushed metrics are grouped by.
+   *
+   * @return job name
+   */
+  public @NotNull String getPushJob() {
+    return pushJob;
+  }
+
+  /**
+   * Set the job the pushed metrics are grouped by on the Pushgateway. Default is {@value #DEFAULT_PUSH_JOB}.
+   *
+   * @param job the job name
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setPushJob(@NotNull String job) {
+    this.pushJob = job;
+    return this;
+  }
+
+  /**
+   * Interval of the pushes to the Pushgateway.
+   *
+   * @return interval in milliseconds
+   */
+  public long getPushInterval() {
+    return pushInterval;
+  }
+
+  /**
+   * Set the time between two successful pushes. Failed pushes are retried sooner, with an exponential backoff.
+   * Default is {@value #DEFAULT_PUSH_INTERVAL} milliseconds.
+   *
+   * @param interval interval in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setPushInterval(long interval) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Push interval must be positive");
+    }
+    this.pushInterval = interval;
+    return this;
+  }
+
+  /**
+   * Check whether the metrics of all nodes of the cluster are exchanged over the event bus.
+   *
+   * @return true if this node answers snapshot requests
+   */
+  public boolean isClusterScrape() {
+    return clusterScrape;
+  }
+
+  /**
+   * Answer snapshot requests of other nodes over the event bus and, if the embedded server is enabled, serve the
+   * metrics of all nodes of the cluster on {@code /metrics/cluster}, labelled by {@code node}. Enable it on every node,
+   * and the embedded server on the nodes scraped by Prometheus. Default is false.
+   *
+   * @param clusterScrape true to exchange the metrics of the cluster
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setClusterScrape(boolean clusterScrape) {
+    this.clusterScrape = clusterScrape;
+    return this;
+  }
+
+  /**
+   * Time a cluster scrape waits for the snapshot of each node.
+   *
+   * @return timeout in milliseconds
+   */
+  public long getClusterScrapeTimeout() {
+    return clusterScrapeTimeout;
+  }
+
+  /**
+   * Set how long a cluster scrape waits for the snapshot of each node. Nodes are asked in parallel, and those which
+   * don't answer in time are reported by {@code vertx_cluster_node_up} instead of stalling the scrape.
+   * Default is {@value #DEFAULT_CLUSTER_SCRAPE_TIMEOUT} milliseconds.
+   *
+   * @param timeout timeout in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setClusterScrapeTimeout(long timeout) {
+    if (timeout <= 0) {
+      throw new IllegalArgumentException("Cluster scrape timeout must be positive");
+    }
+    this.clusterScrapeTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Current event bus address normalizer.
+   *
+   * @return normalizer
+   */
+  public @NotNull AddressNormalizer getAddressNormalizer() {
+    return addressNormalizer;
+  }
+
+  /**
+   * Set the normalizer mapping event bus addresses to {@code address} label values, to bound the number of series
+   * for dynamic addresses. Default is {@link AddressNormalizer#IDENTITY}.
+   *
+   * @param normalizer the address normalizer
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setAddressNormalizer(@NotNull AddressNormalizer normalizer) {
+    this.addressNormalizer = normalizer;
+    return this;
+  }
+
+  /**
+   * Check whether shared counters and gauges are sharded per event loop.
+   *
+   * @return true if event loops update their own shards
+   */
+  public boolean isShardedCollectors() {
+    return shardedCollectors;
+  }
+
+  /**
+   * Let every event loop update its own shard of the shared counters and gauges (bytes, requests, responses,
+   * connections, ...), merged when they are collected. Updates no longer contend across event loops, at the cost of
+   * a slower collect and memory per event loop and series. The exposed metrics are the same. Default is false.
+   *
+   * @param sharded true to shard collectors per event loop
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setShardedCollectors(boolean sharded) {
+    this.shardedCollectors = sharded;
+    return this;
+  }
+
+  /**
+   * Maximum number of series per metric family.
+   *
+   * @return maximum number of series, {@code 0} if unlimited
+   */
+  public int getMaxSeriesPerFamily() {
+    return maxSeriesPerFamily;
+  }
+
+  /**
+   * Limit the number of series per metric family, to protect against label values taken from traffic, such as hosts
+   * and event bus addresses. Once a family is full, new label combinations are folded into a series with the labels
+   * the family declares foldable, e.g. local address, host, address, route, endpoint, error class and pool name, set
+   * to {@code __overflow__}; other labels, such as states, keep their values. Families whose labels all have a closed
+   * set of values fold all of them. Every folded label combination is counted once per family by
+   * {@code vertx_series_overflows}. Default is {@code 0}, which disables the limit.
+   *
+   * @param max maximum number of series per family
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setMaxSeriesPerFamily(int max) {
+    this.maxSeriesPerFamily = max;
+    return this;
+  }
+
+  /**
+   * Time after which idle series of label values taken from traffic are evicted.
+   *
+   * @return time to live in milliseconds, {@code 0} if series are never evicted
+   */
+  public long getSeriesTtl() {
+    return seriesTtl;
+  }
+
+  /**
+   * Evict series of label values taken from traffic, i.e. HTTP request hosts, event bus addresses and error classes,
+   * once they have not been updated for the given time, unless requests or messages are in progress. Sweeps run
+   * periodically on a worker thread of their own, so a series is evicted between one and two and a half times to live
+   * after its last update; set it to a few scrape intervals. Vert.x instances sharing a registry evict a series only
+   * once none of them updated it, with the time to live of the first instance using the family. Default is {@code 0},
+   * which disables eviction.
+   *
+   * @param ttl time to live in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setSeriesTtl(long ttl) {
+    this.seriesTtl = ttl;
+    return this;
+  }
+
+  /**
+   * Check whether HTTP server requests can be labelled by route.
+   *
+   * @return true if requests are labelled by {@link RouteLabelHandler}
+   */
+  public boolean isRouteLabels() {
+    return routeLabels;
+  }
+
+  /**
+   * Label the latency and responses of HTTP server requests by the template of the vertx-web route which handled
+   * them, e.g. {@code /users/:id}, as set by {@link RouteLabelHandler}. In-flight requests are tracked so that the
+   * handler can find their metrics. Default is false.
+   *
+   * @param routeLabels true to label requests by route
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setRouteLabels(boolean routeLabels) {
+    this.routeLabels = routeLabels;
+    return this;
+  }
+
+  /**
+   * Check whether the lifetime of timers is tracked.
+   *
+   * @return true if {@code vertx_timers_lifetime_seconds} is recorded
+   */
+  public boolean isTimerLifetimes() {
+    return timerLifetimes;
+  }
+
+  /**
+   * Track the lifetime of timers, from their creation until they fire or are cancelled, in
+   * {@code vertx_timers_lifetime_seconds}. The creation time of every active timer is kept until it ends.
+   * Default is false.
+   *
+   * @param timerLifetimes true to track the lifetime of timers
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setTimerLifetimes(boolean timerLifetimes) {
+    this.timerLifetimes = timerLifetimes;
+    return this;
+  }
+
+  /**
+   * Check whether handler processing time is attributed to deployments.
+   *
+   * @return true if {@code vertx_deployment_time_seconds} is recorded
+   */
+  public boolean isDeploymentLabels() {
+    return deploymentLabels;
+  }
+
+  /**
+   * Attribute the processing time of HTTP server requests and event bus messages to the deployment owning the
+   * handler, from its Vert.x context, in {@code vertx_deployment_time_seconds} labelled by verticle identifier.
+   * Default is false.
+   *
+   * @param deploymentLabels true to label handler processing time by deployment
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setDeploymentLabels(boolean deploymentLabels) {
+    this.deploymentLabels = deploymentLabels;
+    return this;
+  }
+
+  /**
+   * Interval of the scheduling lag probes of {@link MetricsType#EventLoops}.
+   *
+   * @return interval in milliseconds
+   */
+  public long getEventLoopProbeInterval() {
+    return eventLoopProbeInterval;
+  }
+
+  /**
+   * Set how often a probe task runs on every event loop, once {@link MetricsType#EventLoops} are enabled, to measure
+   * how late it runs compared with when it was scheduled. Default is {@value #DEFAULT_EVENT_LOOP_PROBE_INTERVAL} milliseconds.
+   *
+   * @param interval interval in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setEventLoopProbeInterval(long interval) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Event loop probe interval must be positive");
+    }
+    this.eventLoopProbeInterval = interval;
+    return this;
+  }
+
+  /**
+   * Length of the time slots of peak gauges, {@code vertx_pool_tasks_peak} and {@code vertx_eventloop_max_lag_seconds}.
+   *
+   * @return window in milliseconds
+   */
+  public long getPeakWindow() {
+    return peakWindow;
+  }
+
+  /**
+   * Set the length of the time slots of peak gauges. They expose the highest value of the current and the previous
+   * slot, independently of how often they are read, so a spike stays visible for one to two windows; set it to the
+   * scrape interval or longer so that no spike is missed. Default is {@value #DEFAULT_PEAK_WINDOW} milliseconds.
+   *
+   * @param window window in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setPeakWindow(long window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("Peak window must be positive");
+    }
+    this.peakWindow = window;
+    return this;
+  }
+
+  /**
+   * Bucket layout of a histogram.
+   *
+   * @param type metrics type of the histogram
+   * @param family full name of the histogram, e.g. {@code vertx_eventbus_messages_time_seconds}
+   * @return buckets set for the family, else for the metrics type, else {@link Buckets#defaults()}
+   */
+  public @NotNull Buckets getBuckets(@NotNull MetricsType type, @NotNull String family) {
+    final Buckets buckets = familyBuckets.get(family);
+    return buckets != null ? buckets : typeBuckets.getOrDefault(type, Buckets.defaults());
+  }
+
+  /**
+   * Set the bucket layout of all histograms of a metrics type.
+   *
+   * @param type the metrics type
+   * @param buckets the bucket layout
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setBuckets(@NotNull MetricsType type, @NotNull Buckets buckets) {
+    typeBuckets.put(type, buckets);
+    return this;
+  }
+
+  /**
+   * Set the bucket layout of a histogram, overriding the layout of its metrics type.
+   *
+   * @param family full name of the histogram, e.g. {@code vertx_eventbus_messages_time_seconds}
+   * @param buckets the bucket layout
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull VertxPrometheusOptions setBuckets(@NotNull String family, @NotNull Buckets buckets) {
+    familyBuckets.put(family, buckets);
+    return this;
+  }
 }
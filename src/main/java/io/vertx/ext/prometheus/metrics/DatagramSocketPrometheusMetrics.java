@@ -27,6 +27,12 @@ public final class DatagramSocketPrometheusMetrics extends PrometheusMetrics imp
     errors = new ErrorCounter(NAME, localAddress, counters);
   }
 
+  @Override
+  protected void release() {
+    errors.close();
+    bytes.close();
+  }
+
   @Override
   public void listening(@NotNull String localName, @NotNull SocketAddress localAddress) {
     this.namedLocalAddress = new SocketAddressImpl(localAddress.port(), localName);
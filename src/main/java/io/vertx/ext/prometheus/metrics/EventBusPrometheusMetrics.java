@@ -3,52 +3,89 @@ package io.vertx.ext.prometheus.metrics;
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
-import io.prometheus.client.Histogram;
 import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.spi.metrics.EventBusMetrics;
+import io.vertx.ext.prometheus.AddressNormalizer;
+import io.vertx.ext.prometheus.Buckets;
+import io.vertx.ext.prometheus.metrics.counters.DeploymentMetrics;
+import io.vertx.ext.prometheus.metrics.factories.Family;
+import io.vertx.ext.prometheus.metrics.factories.Labels;
+import io.vertx.ext.prometheus.metrics.factories.Lease;
+import io.vertx.ext.prometheus.metrics.factories.SeriesLimit;
+import io.vertx.ext.prometheus.metrics.factories.SeriesTtl;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Optional;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public final class EventBusPrometheusMetrics extends PrometheusMetrics implements EventBusMetrics<EventBusPrometheusMetrics.Metric> {
+  private static final @NotNull String GENERATED_ADDRESS = "vertx-generated-address";
+  private static final @NotNull String UNKNOWN_ADDRESS = "unknown";
+  private static final int MAX_CACHED_ADDRESSES = 4096;
 
-  private final @NotNull Gauge handlers = Gauge
-      .build("vertx_eventbus_handlers", "Message handlers number")
-      .create();
+  /**
+   * Name of the message processing time histogram.
+   */
+  public static final @NotNull String TIME = "vertx_eventbus_messages_time_seconds";
 
-  private final @NotNull Gauge respondents = Gauge
-      .build("vertx_eventbus_respondents", "Reply handlers number")
-      .create();
-
-  private final @NotNull Gauge messages = Gauge
-      .build("vertx_eventbus_messages", "EventBus messages metrics")
-      .labelNames("range", "state", "address")
-      .create();
-
-  private final @NotNull Counter failures = Counter
-      .build("vertx_eventbus_failures", "Message handling failures number")
-      .labelNames("address", "type", "reason")
-      .create();
-
-  private final @NotNull Histogram time = Histogram.build("vertx_eventbus_messages_time_seconds", "Total messages processing time in seconds")
-      .labelNames("address")
-      .create();
-
-  private final @NotNull Counter bytes = Counter
-      .build("vertx_eventbus_bytes", "Total read/written bytes")
-      .labelNames("address", "type")
-      .create();
+  private final @NotNull Gauge handlers;
+  private final @NotNull Gauge respondents;
+  private final @NotNull Family<Gauge.Child> messagesFamily;
+  private final @NotNull Family<Counter.Child> failuresFamily;
+  private final @NotNull Family<TimeHistogram.Child> timeFamily;
+  private final @NotNull Family<Counter.Child> bytesFamily;
+  private final @NotNull AddressNormalizer normalizer;
+  private final @NotNull SeriesTtl ttl;
+  private final @NotNull Runnable sweeper = this::sweep;
+  private final @Nullable DeploymentMetrics deployments;
+  private final @NotNull ConcurrentMap<String, Address> addresses = new ConcurrentHashMap<>();
+  private final @NotNull ConcurrentMap<String, Address> normalized = new ConcurrentHashMap<>();
+  private final @NotNull Address generated;
+  private final @NotNull Address unknown;
 
   public EventBusPrometheusMetrics(@NotNull CollectorRegistry registry) {
+    this(registry, AddressNormalizer.IDENTITY, SeriesLimit.unlimited(), SeriesTtl.disabled(), Buckets.defaults(), null);
+  }
+
+  /**
+   * @param ttl Evicts the series of addresses without handlers which were idle for a while.
+   * @param deployments Attributes message processing time to the deployment which registered the handler, if not null.
+   */
+  public EventBusPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull AddressNormalizer normalizer, @NotNull SeriesLimit limit, @NotNull SeriesTtl ttl, @NotNull Buckets buckets, @Nullable DeploymentMetrics deployments) {
     super(registry);
-    register(handlers);
-    register(respondents);
-    register(messages);
-    register(failures);
-    register(time);
-    register(bytes);
+    this.normalizer = normalizer;
+    this.ttl = ttl;
+    this.deployments = deployments;
+    generated = new Address(GENERATED_ADDRESS);
+    unknown = new Address(UNKNOWN_ADDRESS);
+    handlers = register("vertx_eventbus_handlers", Gauge
+        .build("vertx_eventbus_handlers", "Message handlers number")
+        .create());
+    respondents = register("vertx_eventbus_respondents", Gauge
+        .build("vertx_eventbus_respondents", "Reply handlers number")
+        .create());
+    messagesFamily = register("vertx_eventbus_messages", Gauge
+        .build("vertx_eventbus_messages", "EventBus messages metrics"),
+        Labels.of("range", "state", "address").fold("address"), limit, ttl);
+    failuresFamily = register("vertx_eventbus_failures", Counter
+        .build("vertx_eventbus_failures", "Message handling failures number"),
+        Labels.of("address", "type", "reason").fold("address"), limit, ttl);
+    timeFamily = register(TIME, TimeHistogram
+        .build(TIME, "Total messages processing time in seconds")
+        .buckets(buckets),
+        Labels.of("address").fold("address"), limit, ttl);
+    bytesFamily = register("vertx_eventbus_bytes", Counter
+        .build("vertx_eventbus_bytes", "Total read/written bytes"),
+        Labels.of("address", "type").fold("address"), limit, ttl);
+    ttl.add(sweeper);
+  }
+
+  @Override
+  protected void release() {
+    ttl.remove(sweeper);
   }
 
   @Override
@@ -56,7 +93,11 @@ public final class EventBusPrometheusMetrics extends PrometheusMetrics implement
     handlers.inc();
     final Optional<String> respondent = Optional.ofNullable(repliedAddress);
     respondent.ifPresent(r -> respondents.inc());
-    return new Metric(address, respondent, time.labels(Address.Generated.apply(address)));
+    Address metrics;
+    do {
+      metrics = address(address);
+    } while (!metrics.register());
+    return new Metric(metrics, respondent, deployments == null ? null : deployments.current());
   }
 
   @Override
@@ -64,112 +105,309 @@ public final class EventBusPrometheusMetrics extends PrometheusMetrics implement
     handlers.dec();
     if (metric != null) {
       metric.respondent.ifPresent(r -> respondents.dec());
+      metric.address.unregister();
     }
   }
 
   @Override
   public void scheduleMessage(@Nullable Metric metric, boolean local) {
-    messages(address(metric), local, "scheduled").inc();
+    address(metric).messages(local, MessageState.Scheduled, 1);
   }
 
   @Override
   public void beginHandleMessage(@Nullable Metric metric, boolean local) {
-    messages(address(metric), local, "pending").dec();
-    messages(address(metric), local, "scheduled").dec();
+    final Address address = address(metric);
+    address.messages(local, MessageState.Pending, -1);
+    address.messages(local, MessageState.Scheduled, -1);
     if (metric != null) {
-      metric.resetTimer();
+      metric.restart();
     }
   }
 
   @Override
   public void endHandleMessage(@Nullable Metric metric, @Nullable Throwable failure) {
     if (metric != null) {
-      metric.timer.observeDuration();
+      metric.lap();
     }
     if (failure != null) {
-      failures.labels(Address.Generated.apply(address(metric)), "request", failure.getClass().getSimpleName()).inc();
+      failure(address(metric).label, "request", failure.getClass().getSimpleName());
     }
   }
 
   @Override
   public void messageSent(@NotNull String address, boolean publish, boolean local, boolean remote) {
-    messages(address, local, publish ? "publish" : "sent").inc();
+    address(address).messages(local, publish ? MessageState.Publish : MessageState.Sent, 1);
   }
 
   @Override
   public void messageReceived(@NotNull String address, boolean publish, boolean local, int handlersNumber) {
-    messages(address, local, "pending").inc(handlersNumber);
-    messages(address, local, "received").inc();
+    final Address metrics = address(address);
+    metrics.messages(local, MessageState.Pending, handlersNumber);
+    metrics.messages(local, MessageState.Received, 1);
     if (handlersNumber > 0) {
-      messages(address, local, "delivered").inc();
+      metrics.messages(local, MessageState.Delivered, 1);
     }
   }
 
   @Override
   public void messageWritten(@NotNull String address, int numberOfBytes) {
-    bytes(address, "write").inc(numberOfBytes);
+    address(address).bytes(Bytes.Write, numberOfBytes);
   }
 
   @Override
   public void messageRead(@NotNull String address, int numberOfBytes) {
-    bytes(address, "read").inc(numberOfBytes);
+    address(address).bytes(Bytes.Read, numberOfBytes);
   }
 
   @Override
   public void replyFailure(@NotNull String address, @NotNull ReplyFailure failure) {
-    failures.labels(Address.Generated.apply(address), "reply", failure.name()).inc();
+    failure(address(address).label, "reply", failure.name());
   }
 
-  private static @NotNull String address(@Nullable Metric metric) {
-    return metric == null ? "unknown" : metric.address;
+  private void failure(@NotNull String address, @NotNull String type, @NotNull String reason) {
+    failuresFamily.touch(address, type, reason).child().inc();
   }
 
-  private @NotNull Counter.Child bytes(@NotNull String address, @NotNull String type) {
-    return bytes.labels(Address.Generated.apply(address), type);
+  private @NotNull Address address(@Nullable Metric metric) {
+    return metric == null ? unknown : metric.address;
   }
 
-  private @NotNull Gauge.Child messages(@NotNull String address, boolean local, @NotNull String state) {
-    return messages.labels(local ? "local" : "remote", state, Address.Generated.apply(address));
+  /**
+   * Metrics of a raw address. Addresses seen before are a single map hit; reply addresses generated by Vert.x are
+   * never cached, and once the caches are full, new addresses are normalized and resolved on every call.
+   */
+  private @NotNull Address address(@NotNull String address) {
+    final Address cached = addresses.get(address);
+    if (cached != null) {
+      return cached;
+    }
+    if (isGenerated(address)) {
+      return generated;
+    }
+    final String label = normalizer.normalize(address);
+    final Address known = normalized.get(label);
+    final Address metrics = known != null || normalized.size() < MAX_CACHED_ADDRESSES
+        ? normalized.computeIfAbsent(label, Address::new)
+        : new Address(label);
+    if (addresses.size() < MAX_CACHED_ADDRESSES) {
+      addresses.putIfAbsent(address, metrics);
+    }
+    return metrics;
+  }
+
+  /**
+   * Evicts the addresses without handlers whose series were all evicted from the caches.
+   */
+  private void sweep() {
+    normalized.values().forEach(address -> {
+      if (address.isEvicted()) {
+        address.uncache();
+      }
+    });
   }
 
-  private enum Address {
-    Generated(Pattern.compile("^\\d+$"), "vertx-generated-address");
+  /**
+   * Whether the address is numeric or consists of five dash-separated parts, like the reply addresses generated by
+   * Vert.x. Scans the address once, without a regular expression or splitting it.
+   */
+  private static boolean isGenerated(@NotNull String address) {
+    if (address.isEmpty()) {
+      return false;
+    }
+    boolean numeric = true;
+    int parts = 0;
+    boolean partEmpty = true;
+    int trailingEmptyParts = 0;
+    for (int i = 0; i < address.length(); i++) {
+      final char c = address.charAt(i);
+      if (c == '-') {
+        parts++;
+        trailingEmptyParts = partEmpty ? trailingEmptyParts + 1 : 0;
+        partEmpty = true;
+      } else {
+        partEmpty = false;
+      }
+      numeric &= c >= '0' && c <= '9';
+    }
+    parts++;
+    trailingEmptyParts = partEmpty ? trailingEmptyParts + 1 : 0;
+    return numeric || parts - trailingEmptyParts == 5;
+  }
+
+  private enum Bytes {
+    Read("read"),
+    Write("write");
+
+    private final @NotNull String label;
+
+    private Bytes(@NotNull String label) {
+      this.label = label;
+    }
+  }
+
+  private enum MessageState {
+    Scheduled("scheduled", true),
+    Pending("pending", true),
+    Received("received", false),
+    Delivered("delivered", false),
+    Publish("publish", false),
+    Sent("sent", false);
+
+    private final @NotNull String label;
+    private final boolean inProgress;
+
+    private MessageState(@NotNull String label, boolean inProgress) {
+      this.label = label;
+      this.inProgress = inProgress;
+    }
+  }
 
-    private final @NotNull Pattern pattern;
-    private final @NotNull String replacement;
+  /**
+   * Leases of a normalized address, taken on first use and again once evicted, see {@link Family#lease(String...)}.
+   * Once the last handler of the address is unregistered, it is evicted from the caches and its message series are
+   * removed; all of its series are also evicted once idle for the {@link SeriesTtl}, see {@link Lease}. The gauges of
+   * scheduled and pending messages stay pinned once per message, until it is handled.
+   */
+  private final class Address {
+    private final @NotNull String label;
+    @SuppressWarnings("unchecked")
+    private final @NotNull Lease<Gauge.Child>[] local = new Lease[MessageState.values().length];
+    @SuppressWarnings("unchecked")
+    private final @NotNull Lease<Gauge.Child>[] remote = new Lease[MessageState.values().length];
+    @SuppressWarnings("unchecked")
+    private final @NotNull Lease<Counter.Child>[] bytes = new Lease[Bytes.values().length];
+    private @Nullable Lease<TimeHistogram.Child> time;
+    private int handlers;
+    private boolean evicted;
 
-    private Address(@NotNull Pattern pattern, @NotNull String replacement) {
-      this.pattern = pattern;
-      this.replacement = replacement;
+    Address(@NotNull String label) {
+      this.label = label;
     }
 
-    public @NotNull String apply(@NotNull String address) {
-      if (pattern.matcher(address).matches()) {
-        return replacement;
+    /**
+     * @return whether the handler was counted, or the address was evicted and must be resolved again
+     */
+    boolean register() {
+      if (isShared()) {
+        return true;
       }
-      if (address.split("-").length == 5) {
-        return replacement;
+      synchronized (this) {
+        if (evicted) {
+          return false;
+        }
+        handlers++;
+        return true;
       }
-      return address;
+    }
+
+    void unregister() {
+      if (isShared()) {
+        return;
+      }
+      synchronized (this) {
+        handlers--;
+        if (uncache()) {
+          for (MessageState state : MessageState.values()) {
+            messagesFamily.remove("local", state.label, label);
+            messagesFamily.remove("remote", state.label, label);
+          }
+        }
+      }
+    }
+
+    /**
+     * Evicts the address from the caches, unless it has handlers.
+     * Addresses resolved once the caches are full are not shared by the handlers of the address, and never evicted.
+     *
+     * @return whether the address was evicted
+     */
+    synchronized boolean uncache() {
+      if (handlers > 0 || evicted || !normalized.remove(label, this)) {
+        return false;
+      }
+      evicted = true;
+      addresses.values().removeIf(this::equals);
+      return true;
+    }
+
+    boolean isEvicted() {
+      return allEvicted(local) && allEvicted(remote) && allEvicted(bytes) && (time == null || time.isEvicted());
+    }
+
+    private boolean isShared() {
+      return this == generated || this == unknown;
+    }
+
+    void messages(boolean local, @NotNull MessageState state, int delta) {
+      final Lease<Gauge.Child>[] leases = local ? this.local : this.remote;
+      final int index = state.ordinal();
+      Lease<Gauge.Child> lease = leases[index];
+      while (lease == null || !(state.inProgress ? lease.pin() : lease.touch())) {
+        lease = messagesFamily.lease(local ? "local" : "remote", state.label, label);
+        leases[index] = lease;
+      }
+      lease.child().inc(delta);
+      if (state.inProgress) {
+        for (int i = 1; i < delta; i++) {
+          lease.pin();
+        }
+        for (int i = delta; i < 1; i++) {
+          lease.unpin();
+        }
+      }
+    }
+
+    void bytes(@NotNull Bytes type, int amount) {
+      final int index = type.ordinal();
+      Lease<Counter.Child> lease = bytes[index];
+      while (lease == null || !lease.touch()) {
+        lease = bytesFamily.lease(label, type.label);
+        bytes[index] = lease;
+      }
+      lease.child().inc(amount);
+    }
+
+    void time(long nanos) {
+      Lease<TimeHistogram.Child> lease = time;
+      while (lease == null || !lease.touch()) {
+        lease = timeFamily.lease(label);
+        time = lease;
+      }
+      lease.child().observe(nanos);
     }
   }
 
+  private static boolean allEvicted(@NotNull Lease<?>[] leases) {
+    for (Lease<?> lease : leases) {
+      if (lease != null && !lease.isEvicted()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public static final class Metric {
-    private final @NotNull String address;
+    private final @NotNull Address address;
     private final @NotNull Optional<String> respondent;
-    private final @NotNull Histogram.Child histogram;
-    private @NotNull Histogram.Timer timer;
+    private final @Nullable TimeHistogram.Child deployment;
+    private long start = System.nanoTime();
 
-    public Metric(@NotNull String address, @NotNull Optional<String> respondent, @NotNull Histogram.Child histogram) {
+    private Metric(@NotNull Address address, @NotNull Optional<String> respondent, @Nullable TimeHistogram.Child deployment) {
       this.address = address;
       this.respondent = respondent;
-      this.histogram = histogram;
-      timer = histogram.startTimer();
+      this.deployment = deployment;
     }
 
-    public @NotNull Histogram.Timer resetTimer() {
-      timer = histogram.startTimer();
-      return timer;
+    public void restart() {
+      start = System.nanoTime();
+    }
+
+    private void lap() {
+      final long time = System.nanoTime() - start;
+      address.time(time);
+      if (deployment != null) {
+        deployment.observe(time);
+      }
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package io.vertx.ext.prometheus.metrics;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.prometheus.client.Collector;
+import io.vertx.ext.prometheus.metrics.counters.HighWatermark;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how late event loops run a periodic task, compared with when it was scheduled.
+ * The probes are scheduled on the event loops directly rather than as Vert.x timers, so they neither show up in the
+ * timers metrics nor allocate per tick.
+ */
+public final class EventLoopPrometheusMetrics {
+  private final @NotNull List<ScheduledFuture<?>> probes = new ArrayList<>();
+
+  /**
+   * @param eventLoops The event loops to probe.
+   * @param interval The interval of the probes in milliseconds.
+   * @param peakWindow The length of the time slots of the max lag in milliseconds, see {@link HighWatermark}.
+   */
+  public EventLoopPrometheusMetrics(@NotNull EventLoopGroup eventLoops, long interval, long peakWindow, @NotNull GaugeFactory gauges, @NotNull HistogramFactory histograms) {
+    final long period = TimeUnit.MILLISECONDS.toNanos(interval);
+    int index = 0;
+    for (EventExecutor eventLoop : eventLoops) {
+      final String loop = Integer.toString(index++);
+      final Probe probe = new Probe(
+          histograms.eventLoopLagSeconds().labels(loop),
+          (HighWatermark) gauges.eventLoopMaxLag().replace(child -> child instanceof HighWatermark ? child : new HighWatermark(peakWindow, Collector.NANOSECONDS_PER_SECOND), loop),
+          period);
+      probes.add(eventLoop.scheduleAtFixedRate(probe, period, period, TimeUnit.NANOSECONDS));
+    }
+  }
+
+  public void close() {
+    probes.forEach(probe -> probe.cancel(false));
+    probes.clear();
+  }
+
+  /**
+   * Periodic task of an event loop. Runs at a fixed rate, so each run is due one period after the previous one
+   * was due, however late that one ran.
+   */
+  private static final class Probe implements Runnable {
+    private final @NotNull TimeHistogram.Child lag;
+    private final @NotNull HighWatermark maxLag;
+    private final long period;
+    private long deadline;
+
+    Probe(@NotNull TimeHistogram.Child lag, @NotNull HighWatermark maxLag, long period) {
+      this.lag = lag;
+      this.maxLag = maxLag;
+      this.period = period;
+      deadline = System.nanoTime() + period;
+    }
+
+    @Override
+    public void run() {
+      final long late = Math.max(System.nanoTime() - deadline, 0);
+      deadline += period;
+      lag.observe(late);
+      maxLag.observe(late);
+    }
+  }
+}
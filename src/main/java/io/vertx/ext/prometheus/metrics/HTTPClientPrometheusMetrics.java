@@ -2,14 +2,16 @@ package io.vertx.ext.prometheus.metrics;
 
 import com.google.common.base.MoreObjects;
 import io.prometheus.client.CollectorRegistry;
-import io.prometheus.client.Histogram;
 import io.vertx.core.http.HttpClientRequest;
 import io.vertx.core.http.HttpClientResponse;
 import io.vertx.core.http.WebSocket;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.metrics.HttpClientMetrics;
+import io.vertx.ext.prometheus.MetricsType;
+import io.vertx.ext.prometheus.metrics.counters.BytesCounter;
 import io.vertx.ext.prometheus.metrics.counters.EndpointMetrics;
 import io.vertx.ext.prometheus.metrics.counters.HTTPRequestMetrics;
+import io.vertx.ext.prometheus.metrics.counters.Timestamp;
 import io.vertx.ext.prometheus.metrics.counters.WebsocketGauge;
 import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
 import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
@@ -17,44 +19,55 @@ import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public final class HTTPClientPrometheusMetrics extends TCPPrometheusMetrics implements HttpClientMetrics<HTTPRequestMetrics.Metric, Void, Void, Void, Histogram.Timer> {
+public final class HTTPClientPrometheusMetrics extends TCPPrometheusMetrics implements HttpClientMetrics<HTTPRequestMetrics.Metric, Void, BytesCounter.Connection, EndpointMetrics, Timestamp> {
   private static final @NotNull String NAME = "httpclient";
 
-  private final @NotNull EndpointMetrics endpoints;
+  private final @NotNull String localAddress;
+  private final @NotNull GaugeFactory gauges;
+  private final @NotNull HistogramFactory histograms;
   private final @NotNull WebsocketGauge websockets;
   private final @NotNull HTTPRequestMetrics requests;
 
   public HTTPClientPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull String localAddress, @NotNull GaugeFactory gauges, @NotNull CounterFactory counters, @NotNull HistogramFactory histograms) {
     super(registry, NAME, localAddress, gauges, counters);
-    requests = new HTTPRequestMetrics(NAME, localAddress, gauges, counters, histograms);
-    endpoints = new EndpointMetrics(NAME, localAddress, gauges, histograms);
+    requests = new HTTPRequestMetrics(MetricsType.HTTPClient, NAME, localAddress, gauges, counters, histograms);
+    this.localAddress = localAddress;
+    this.gauges = gauges;
+    this.histograms = histograms;
     websockets = new WebsocketGauge(NAME, localAddress, gauges);
   }
 
   @Override
-  public @Nullable Void createEndpoint(@NotNull String host, int port, int maxPoolSize) {
-    return null;
+  public @NotNull EndpointMetrics createEndpoint(@NotNull String host, int port, int maxPoolSize) {
+    return new EndpointMetrics(MetricsType.HTTPClient, NAME, localAddress, host + ':' + port, maxPoolSize, gauges, histograms);
+  }
+
+  @Override
+  public void closeEndpoint(@NotNull String host, int port, @NotNull EndpointMetrics endpointMetric) {
+    endpointMetric.close();
   }
 
   @Override
-  public void closeEndpoint(@NotNull String host, int port, @Nullable Void endpoint) {
-    // nothing to do
+  public void endpointConnected(@NotNull EndpointMetrics endpointMetric, @Nullable BytesCounter.Connection socketMetric) {
+    endpointMetric.increment();
   }
 
   @Override
-  public void endpointConnected(@Nullable Void endpointMetric, @Nullable Void socketMetric) {
-    endpoints.increment();
+  public void endpointDisconnected(@NotNull EndpointMetrics endpointMetric, @Nullable BytesCounter.Connection socketMetric) {
+    endpointMetric.decrement();
   }
 
   @Override
-  public void endpointDisconnected(@Nullable Void endpointMetric, @Nullable Void socketMetric) {
-    endpoints.decrement();
+  protected void release() {
+    super.release();
+    websockets.close();
+    requests.close();
   }
 
   @Override
-  public @Nullable Void connected(@Nullable Void endpointMetric, @Nullable Void socketMetric, @NotNull WebSocket webSocket) {
+  public @Nullable Void connected(@Nullable EndpointMetrics endpointMetric, @Nullable BytesCounter.Connection socketMetric, @NotNull WebSocket webSocket) {
     websockets.increment();
-    return socketMetric;
+    return null;
   }
 
   @Override
@@ -63,18 +76,18 @@ public final class HTTPClientPrometheusMetrics extends TCPPrometheusMetrics impl
   }
 
   @Override
-  public @NotNull Histogram.Timer enqueueRequest(@Nullable Void endpointMetric) {
-    return endpoints.enqueue();
+  public @NotNull Timestamp enqueueRequest(@NotNull EndpointMetrics endpointMetric) {
+    return endpointMetric.enqueue();
   }
 
   @Override
-  public void dequeueRequest(@Nullable Void endpointMetric, @NotNull Histogram.Timer timer) {
-    endpoints.dequeue(timer);
+  public void dequeueRequest(@NotNull EndpointMetrics endpointMetric, @NotNull Timestamp timestamp) {
+    endpointMetric.dequeue(timestamp);
   }
 
   @Override
-  public @NotNull HTTPRequestMetrics.Metric requestBegin(@Nullable Void endpointMetric, @Nullable Void socketMetric, @NotNull SocketAddress localAddress, @NotNull SocketAddress remoteAddress, @NotNull HttpClientRequest request) {
-    return requests.begin(request.method(), MoreObjects.firstNonNull(request.getHost(), remoteAddress.host()));
+  public @NotNull HTTPRequestMetrics.Metric requestBegin(@Nullable EndpointMetrics endpointMetric, @Nullable BytesCounter.Connection socketMetric, @NotNull SocketAddress localAddress, @NotNull SocketAddress remoteAddress, @NotNull HttpClientRequest request) {
+    return requests.beginExchange(request.method(), host(request, remoteAddress));
   }
 
   @Override
@@ -88,17 +101,21 @@ public final class HTTPClientPrometheusMetrics extends TCPPrometheusMetrics impl
   }
 
   @Override
-  public @NotNull HTTPRequestMetrics.Metric responsePushed(@Nullable Void endpointMetric, @Nullable Void socketMetric, @NotNull SocketAddress localAddress, @NotNull SocketAddress remoteAddress, @NotNull HttpClientRequest request) {
-    return requestBegin(endpointMetric, socketMetric, localAddress, remoteAddress, request);
+  public @NotNull HTTPRequestMetrics.Metric responsePushed(@Nullable EndpointMetrics endpointMetric, @Nullable BytesCounter.Connection socketMetric, @NotNull SocketAddress localAddress, @NotNull SocketAddress remoteAddress, @NotNull HttpClientRequest request) {
+    return requests.begin(request.method(), host(request, remoteAddress));
   }
 
   @Override
   public void responseBegin(@NotNull HTTPRequestMetrics.Metric requestMetric, @NotNull HttpClientResponse response) {
-    // nothing to do
+    requests.responseBegin(requestMetric);
   }
 
   @Override
   public void responseEnd(@NotNull HTTPRequestMetrics.Metric requestMetric, @NotNull HttpClientResponse response) {
     requests.responseEnd(requestMetric, response.statusCode());
   }
+
+  private static @NotNull String host(@NotNull HttpClientRequest request, @NotNull SocketAddress remoteAddress) {
+    return MoreObjects.firstNonNull(request.getHost(), remoteAddress.host());
+  }
 }
@@ -8,6 +8,9 @@ import io.vertx.core.http.HttpServerResponse;
 import io.vertx.core.http.ServerWebSocket;
 import io.vertx.core.net.SocketAddress;
 import io.vertx.core.spi.metrics.HttpServerMetrics;
+import io.vertx.ext.prometheus.MetricsType;
+import io.vertx.ext.prometheus.metrics.counters.BytesCounter;
+import io.vertx.ext.prometheus.metrics.counters.DeploymentMetrics;
 import io.vertx.ext.prometheus.metrics.counters.HTTPRequestMetrics;
 import io.vertx.ext.prometheus.metrics.counters.WebsocketGauge;
 import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
@@ -16,52 +19,114 @@ import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public final class HTTPServerPrometheusMetrics extends TCPPrometheusMetrics implements HttpServerMetrics<HTTPRequestMetrics.Metric, Void, Void> {
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class HTTPServerPrometheusMetrics extends TCPPrometheusMetrics implements HttpServerMetrics<HTTPRequestMetrics.Metric, Void, BytesCounter.Connection> {
   private static final @NotNull String NAME = "httpserver";
+  private static final @NotNull String UNKNOWN = "unknown";
+
+  /**
+   * Metrics of in-flight requests of servers with route labels, by response. Routers wrap requests, but not their
+   * responses. A response belongs to one server only, so all servers share the map.
+   */
+  private static final @NotNull ConcurrentMap<HttpServerResponse, HTTPRequestMetrics.Metric> ROUTABLE = new ConcurrentHashMap<>();
 
   private final @NotNull HTTPRequestMetrics requests;
   private final @NotNull WebsocketGauge websockets;
+  private final boolean routeLabels;
+  private final @Nullable DeploymentMetrics deployments;
 
   public HTTPServerPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull SocketAddress localAddress, @NotNull GaugeFactory gauges, @NotNull CounterFactory counters, @NotNull HistogramFactory histograms) {
+    this(registry, localAddress, gauges, counters, histograms, false, null);
+  }
+
+  /**
+   * @param routeLabels Whether in-flight requests are tracked, so that {@link #route(HttpServerResponse, String)} can label them.
+   * @param deployments Attributes request processing time to the deployment handling the request, if not null.
+   */
+  public HTTPServerPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull SocketAddress localAddress, @NotNull GaugeFactory gauges, @NotNull CounterFactory counters, @NotNull HistogramFactory histograms, boolean routeLabels, @Nullable DeploymentMetrics deployments) {
     super(registry, NAME, localAddress.toString(), gauges, counters);
+    this.routeLabels = routeLabels;
+    this.deployments = deployments;
     websockets = new WebsocketGauge(NAME, localAddress.toString(), gauges);
-    requests = new HTTPRequestMetrics(NAME, localAddress.toString(), gauges, counters, histograms);
+    requests = new HTTPRequestMetrics(MetricsType.HTTPServer, NAME, localAddress.toString(), gauges, counters, histograms);
   }
 
   @Override
-  public @NotNull HTTPRequestMetrics.Metric requestBegin(@Nullable Void metric, @NotNull HttpServerRequest request) {
-    return requests.begin(request.method(), MoreObjects.firstNonNull(request.host(), "unknown"));
+  public @NotNull HTTPRequestMetrics.Metric requestBegin(@Nullable BytesCounter.Connection connection, @NotNull HttpServerRequest request) {
+    final HTTPRequestMetrics.Metric metric = requests.begin(request.method(), MoreObjects.firstNonNull(request.host(), UNKNOWN));
+    if (deployments != null) {
+      metric.deployment(deployments.current());
+    }
+    if (routeLabels) {
+      metric.key(request.response());
+      ROUTABLE.put(request.response(), metric);
+    }
+    return metric;
+  }
+
+  /**
+   * Labels the latency and response of an in-flight request by a route template.
+   * Does nothing unless the server of the request was created with route labels.
+   *
+   * @param response The response to the request.
+   * @param route The template of the route handling the request, e.g. {@code /users/:id}.
+   */
+  public static void route(@NotNull HttpServerResponse response, @NotNull String route) {
+    final HTTPRequestMetrics.Metric metric = ROUTABLE.get(response);
+    if (metric != null) {
+      metric.route(route);
+    }
   }
 
   @Override
   public void requestReset(@NotNull HTTPRequestMetrics.Metric metric) {
+    untrack(metric);
     requests.reset(metric);
   }
 
   @Override
-  public @NotNull HTTPRequestMetrics.Metric responsePushed(@Nullable Void metric, @NotNull HttpMethod method, @NotNull String uri, @NotNull HttpServerResponse response) {
-    return requests.begin(method, uri);
+  public @NotNull HTTPRequestMetrics.Metric responsePushed(@Nullable BytesCounter.Connection metric, @NotNull HttpMethod method, @NotNull String uri, @NotNull HttpServerResponse response) {
+    // the pushed uri would make the host label unbounded
+    return requests.begin(method, UNKNOWN);
   }
 
   @Override
   public void responseEnd(@NotNull HTTPRequestMetrics.Metric metric, @NotNull HttpServerResponse response) {
+    untrack(metric);
     requests.responseEnd(metric, response.getStatusCode());
   }
 
   @Override
   public @Nullable Void upgrade(@NotNull HTTPRequestMetrics.Metric metric, @NotNull ServerWebSocket serverWebSocket) {
+    untrack(metric);
     requests.upgrade(metric);
     return null;
   }
 
   @Override
-  public @Nullable Void connected(@Nullable Void metric, @NotNull ServerWebSocket serverWebSocket) {
+  protected void release() {
+    super.release();
+    websockets.close();
+    requests.close();
+  }
+
+  @Override
+  public @Nullable Void connected(@Nullable BytesCounter.Connection metric, @NotNull ServerWebSocket serverWebSocket) {
     websockets.increment();
-    return metric;
+    return null;
   }
 
   @Override
   public void disconnected(@Nullable Void metric) {
     websockets.decrement();
   }
+
+  private void untrack(@NotNull HTTPRequestMetrics.Metric metric) {
+    final Object response = metric.key();
+    if (response != null) {
+      ROUTABLE.remove(response, metric);
+    }
+  }
 }
@@ -1,74 +1,102 @@
 package io.vertx.ext.prometheus.metrics;
 
+import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
-import io.prometheus.client.Histogram;
 import io.vertx.core.spi.metrics.PoolMetrics;
+import io.vertx.ext.prometheus.metrics.counters.HighWatermark;
+import io.vertx.ext.prometheus.metrics.counters.Stopwatch;
+import io.vertx.ext.prometheus.metrics.counters.Timestamp;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.Family;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
 import org.jetbrains.annotations.NotNull;
 
-public final class PoolPrometheusMetrics extends PrometheusMetrics implements PoolMetrics<Histogram.Timer> {
+public final class PoolPrometheusMetrics extends PrometheusMetrics implements PoolMetrics<Timestamp> {
   private final @NotNull TaskMetrics tasks;
   private final @NotNull TimeMetrics time;
+  private final @NotNull ResultMetrics results;
+  private final @NotNull Counter.Child busy;
 
-  public PoolPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull String type, @NotNull String name, int maxSize) {
+  public PoolPrometheusMetrics(@NotNull CollectorRegistry registry, @NotNull String type, @NotNull String name, int maxSize, long peakWindow, @NotNull GaugeFactory gauges, @NotNull CounterFactory counters, @NotNull HistogramFactory histograms) {
     super(registry);
-    register(TaskMetrics.gauge);
-    register(TimeMetrics.histogram);
-    tasks = new TaskMetrics(type, name);
-    time = new TimeMetrics(type, name);
+    tasks = new TaskMetrics(type, name, gauges.poolTasks(), gauges.poolTasksPeak(), peakWindow);
+    time = new TimeMetrics(type, name, histograms.poolTimeSeconds());
+    results = new ResultMetrics(type, name, counters.poolResults());
+    busy = counters.poolBusySeconds().labels(type, name);
 
-    TaskMetrics.gauge.labels(type, name, "max_size").set(maxSize);
+    gauges.poolTasks().labels(type, name, "max_size").set(maxSize);
   }
 
   @Override
-  public @NotNull Histogram.Timer submitted() {
+  public @NotNull Timestamp submitted() {
     tasks.queued.inc();
-    return time.delay.startTimer();
+    tasks.queuedPeak.increment();
+    return Timestamp.now();
   }
 
   @Override
-  public void rejected(@NotNull Histogram.Timer submittedTimer) {
+  public void rejected(@NotNull Timestamp submitted) {
     tasks.queued.dec();
+    tasks.queuedPeak.decrement();
+    results.rejected.inc();
+    submitted.recycle();
   }
 
   @Override
-  public @NotNull Histogram.Timer begin(@NotNull Histogram.Timer submittedTimer) {
+  public @NotNull Timestamp begin(@NotNull Timestamp submitted) {
     tasks.queued.dec();
+    tasks.queuedPeak.decrement();
     tasks.used.inc();
-    submittedTimer.observeDuration();
-    return time.process.startTimer();
+    tasks.usedPeak.increment();
+    return submitted.lap(time.delay);
   }
 
   @Override
-  public void end(@NotNull Histogram.Timer beginTimer, boolean succeeded) {
-    beginTimer.observeDuration();
+  public void end(@NotNull Timestamp begin, boolean succeeded) {
+    // accounted when the task ends; divided by the max_size tasks gauge, its rate is the utilization of the pool
+    busy.inc(begin.finish(time.process) / Collector.NANOSECONDS_PER_SECOND);
     tasks.used.dec();
+    tasks.usedPeak.decrement();
+    (succeeded ? results.succeeded : results.failed).inc();
   }
 
   private static final class TaskMetrics {
-    private static final @NotNull Gauge gauge = Gauge.build("vertx_pool_tasks", "Pool queue metrics")
-        .labelNames("type", "name", "state").create();
-
     private final @NotNull Gauge.Child queued;
     private final @NotNull Gauge.Child used;
+    private final @NotNull HighWatermark queuedPeak;
+    private final @NotNull HighWatermark usedPeak;
 
-    public TaskMetrics(@NotNull String type, @NotNull String name) {
+    public TaskMetrics(@NotNull String type, @NotNull String name, @NotNull Family<Gauge.Child> gauge, @NotNull Family<Gauge.Child> peak, long window) {
       queued = gauge.labels(type, name, "queued");
       used = gauge.labels(type, name, "used");
+      queuedPeak = (HighWatermark) peak.replace(child -> child instanceof HighWatermark ? child : new HighWatermark(window), type, name, "queued");
+      usedPeak = (HighWatermark) peak.replace(child -> child instanceof HighWatermark ? child : new HighWatermark(window), type, name, "used");
     }
   }
 
   private static final class TimeMetrics {
-    private static final @NotNull Histogram histogram = Histogram.build("vertx_pool_time_seconds", "Pool time metrics in seconds")
-        .labelNames("type", "name", "state")
-        .create();
+    private final @NotNull Stopwatch delay;
+    private final @NotNull Stopwatch process;
+
+    public TimeMetrics(@NotNull String type, @NotNull String name, @NotNull Family<TimeHistogram.Child> histogram) {
+      delay = new Stopwatch(histogram.labels(type, name, "delay"));
+      process = new Stopwatch(histogram.labels(type, name, "process"));
+    }
+  }
 
-    private final @NotNull Histogram.Child delay;
-    private final @NotNull Histogram.Child process;
+  private static final class ResultMetrics {
+    private final @NotNull Counter.Child rejected;
+    private final @NotNull Counter.Child succeeded;
+    private final @NotNull Counter.Child failed;
 
-    public TimeMetrics(@NotNull String type, @NotNull String name) {
-      delay = histogram.labels(type, name, "delay");
-      process = histogram.labels(type, name, "process");
+    public ResultMetrics(@NotNull String type, @NotNull String name, @NotNull Family<Counter.Child> counter) {
+      rejected = counter.labels(type, name, "rejected");
+      succeeded = counter.labels(type, name, "succeeded");
+      failed = counter.labels(type, name, "failed");
     }
   }
 }
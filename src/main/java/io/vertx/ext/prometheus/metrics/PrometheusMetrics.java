@@ -2,7 +2,13 @@ package io.vertx.ext.prometheus.metrics;
 
 import io.prometheus.client.Collector;
 import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.SimpleCollector;
 import io.vertx.core.spi.metrics.Metrics;
+import io.vertx.ext.prometheus.metrics.factories.Family;
+import io.vertx.ext.prometheus.metrics.factories.Labels;
+import io.vertx.ext.prometheus.metrics.factories.SeriesLimit;
+import io.vertx.ext.prometheus.metrics.factories.SeriesTtl;
+import io.vertx.ext.prometheus.metrics.factories.SharedCollectors;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -10,7 +16,8 @@ import java.util.Collection;
 
 public abstract class PrometheusMetrics implements Metrics {
   private final @NotNull CollectorRegistry registry;
-  private final @NotNull Collection<Collector> collectors = new ArrayList<>();
+  private final @NotNull Collection<String> names = new ArrayList<>();
+  private volatile boolean closed;
 
   protected PrometheusMetrics(@NotNull CollectorRegistry registry) {
     this.registry = registry;
@@ -18,20 +25,52 @@ public abstract class PrometheusMetrics implements Metrics {
 
   @Override
   public final boolean isEnabled() {
-    return !collectors.isEmpty();
+    return !closed;
   }
 
+  /**
+   * Releases the series claimed and the collectors registered by these metrics, see
+   * {@link SharedCollectors#release(CollectorRegistry, String)}.
+   */
   @Override
-  public final void close() {
-    collectors.forEach(registry::unregister);
-    collectors.clear();
+  public final synchronized void close() {
+    if (!closed) {
+      closed = true;
+      release();
+      names.forEach(name -> SharedCollectors.release(registry, name));
+      names.clear();
+    }
   }
 
-  public final void register(@NotNull Collector collector) {
-    try {
-      registry.register(collector);
-      collectors.add(collector);
-    } catch (IllegalArgumentException ignore) {
-    }
+  /**
+   * Releases the series claimed by these metrics, called once on {@link #close()}.
+   */
+  protected void release() {
+  }
+
+  /**
+   * @param name The name of the collector.
+   * @param collector The collector to register, unless other metrics of the registry already did.
+   * @return The collector shared by all metrics of the registry.
+   */
+  protected final synchronized <T extends Collector> @NotNull T register(@NotNull String name, @NotNull T collector) {
+    final T shared = SharedCollectors.acquire(registry, name, collector);
+    names.add(name);
+    return shared;
+  }
+
+  /**
+   * @param name The name of the collector.
+   * @param builder Builds the collector to register, unless other metrics of the registry already did.
+   * @param labels The labels of the collector, and which of them the family folds.
+   * @param limit The limit of the family, unless other metrics of the registry already created it.
+   * @param ttl The time to live of the family, unless other metrics of the registry already created it.
+   * @return The family of the collector shared by all metrics of the registry.
+   */
+  protected final synchronized <C> @NotNull Family<C> register(@NotNull String name, @NotNull SimpleCollector.Builder<?, ? extends SimpleCollector<C>> builder,
+                                                              @NotNull Labels labels, @NotNull SeriesLimit limit, @NotNull SeriesTtl ttl) {
+    final Family<C> shared = SharedCollectors.acquire(registry, name, builder, labels, limit, ttl);
+    names.add(name);
+    return shared;
   }
 }
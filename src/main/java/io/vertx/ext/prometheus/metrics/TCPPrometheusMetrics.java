@@ -11,7 +11,7 @@ import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public abstract class TCPPrometheusMetrics extends PrometheusMetrics implements TCPMetrics<Void> {
+public abstract class TCPPrometheusMetrics extends PrometheusMetrics implements TCPMetrics<BytesCounter.Connection> {
   private final @NotNull ConnectionGauge connections;
   private final @NotNull BytesCounter bytes;
   private final @NotNull ErrorCounter errors;
@@ -24,28 +24,46 @@ public abstract class TCPPrometheusMetrics extends PrometheusMetrics implements
   }
 
   @Override
-  public final @Nullable Void connected(@NotNull SocketAddress remoteAddress, @NotNull String remoteName) {
+  protected void release() {
+    connections.close();
+    errors.close();
+    bytes.close();
+  }
+
+  @Override
+  public final @NotNull BytesCounter.Connection connected(@NotNull SocketAddress remoteAddress, @NotNull String remoteName) {
     connections.connected();
-    return null;
+    return bytes.connect();
   }
 
   @Override
-  public final void disconnected(@Nullable Void metric, @NotNull SocketAddress remoteAddress) {
+  public final void disconnected(@Nullable BytesCounter.Connection metric, @NotNull SocketAddress remoteAddress) {
     connections.disconnected();
+    if (metric != null) {
+      metric.close();
+    }
   }
 
   @Override
-  public final void bytesRead(@Nullable Void metric, @NotNull SocketAddress remoteAddress, long numberOfBytes) {
-    bytes.read(numberOfBytes);
+  public final void bytesRead(@Nullable BytesCounter.Connection metric, @NotNull SocketAddress remoteAddress, long numberOfBytes) {
+    if (metric != null) {
+      metric.read(numberOfBytes);
+    } else {
+      bytes.read(numberOfBytes);
+    }
   }
 
   @Override
-  public final void bytesWritten(@Nullable Void metric, @NotNull SocketAddress remoteAddress, long numberOfBytes) {
-    bytes.written(numberOfBytes);
+  public final void bytesWritten(@Nullable BytesCounter.Connection metric, @NotNull SocketAddress remoteAddress, long numberOfBytes) {
+    if (metric != null) {
+      metric.written(numberOfBytes);
+    } else {
+      bytes.written(numberOfBytes);
+    }
   }
 
   @Override
-  public final void exceptionOccurred(@Nullable Void metric, @NotNull SocketAddress remoteAddress, @NotNull Throwable throwable) {
+  public final void exceptionOccurred(@Nullable BytesCounter.Connection metric, @NotNull SocketAddress remoteAddress, @NotNull Throwable throwable) {
     errors.increment(throwable);
   }
 }
@@ -2,32 +2,175 @@ package io.vertx.ext.prometheus.metrics.counters;
 
 import io.prometheus.client.Counter;
 import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.Family;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.function.Supplier;
 
 public final class BytesCounter {
-  private final @NotNull Counter counter;
+  private static final @NotNull String READ = "read";
+  private static final @NotNull String WRITTEN = "written";
+
+  private final @NotNull Family<Counter.Child> counter;
   private final @NotNull Supplier<String> localAddress;
+  private final @Nullable String claimed;
 
+  /**
+   * Claims the series of the local address until {@link #close()}.
+   */
   public BytesCounter(@NotNull String name, @NotNull String localAddress, @NotNull CounterFactory counters) {
-    this(name, () -> localAddress, counters);
+    this(name, () -> localAddress, localAddress, counters);
   }
 
   public BytesCounter(@NotNull String name, @NotNull Supplier<String> localAddress, @NotNull CounterFactory counters) {
+    this(name, localAddress, null, counters);
+  }
+
+  private BytesCounter(@NotNull String name, @NotNull Supplier<String> localAddress, @Nullable String claimed, @NotNull CounterFactory counters) {
     this.localAddress = localAddress;
-    counter = counters.bytes(name);
+    this.claimed = claimed;
+    counter = counters.bytes(name, Bytes::new);
+    if (claimed != null) {
+      counter.claim(claimed);
+    }
   }
 
   public void read(long bytes) {
-    increment("read", bytes);
+    increment(READ, bytes);
   }
 
   public void written(long bytes) {
-    increment("written", bytes);
+    increment(WRITTEN, bytes);
+  }
+
+  /**
+   * Starts counting the bytes of a connection in its own accumulators.
+   * They are flushed into the counter in batches, on {@link Connection#close()} and whenever the counter is collected.
+   *
+   * @return accumulators of the connection
+   */
+  public @NotNull Connection connect() {
+    final String address = localAddress.get();
+    return new Connection(bytes(address, READ).open(), bytes(address, WRITTEN).open());
+  }
+
+  /**
+   * Releases the series of the local address, if claimed.
+   */
+  public void close() {
+    if (claimed != null) {
+      counter.release(claimed);
+    }
   }
 
   private void increment(@NotNull String operation, long bytes) {
     counter.labels(localAddress.get(), operation).inc(bytes);
   }
-}
\ No newline at end of file
+
+  private @NotNull Bytes bytes(@NotNull String address, @NotNull String operation) {
+    return (Bytes) counter.labels(address, operation);
+  }
+
+  /**
+   * Byte accumulators of a connection, updated by its event loop only.
+   */
+  public static final class Connection {
+    private final @NotNull Tally read;
+    private final @NotNull Tally written;
+
+    private Connection(@NotNull Tally read, @NotNull Tally written) {
+      this.read = read;
+      this.written = written;
+    }
+
+    public void read(long bytes) {
+      read.add(bytes);
+    }
+
+    public void written(long bytes) {
+      written.add(bytes);
+    }
+
+    public void close() {
+      read.close();
+      written.close();
+    }
+  }
+
+  /**
+   * Counter child that flushes the tallies of open connections into the child holding its value when it is collected.
+   * Created by the counter for every label set, so no update goes to a child which is replaced later.
+   */
+  private static final class Bytes extends Counter.Child {
+    private final @NotNull Counter.Child value;
+    private final @NotNull Set<Tally> open = ConcurrentHashMap.newKeySet();
+
+    private Bytes(@NotNull Counter.Child value) {
+      this.value = value;
+    }
+
+    @Override
+    public void inc(double amount) {
+      value.inc(amount);
+    }
+
+    @Override
+    public double get() {
+      open.forEach(Tally::flush);
+      return value.get();
+    }
+
+    private @NotNull Tally open() {
+      final Tally tally = new Tally(this);
+      open.add(tally);
+      return tally;
+    }
+  }
+
+  /**
+   * Running total of one connection and operation. Only the event loop of the connection adds to the total; whoever
+   * flushes claims the unflushed part with a CAS on {@code flushed}, so no byte is counted twice.
+   */
+  private static final class Tally {
+    private static final long BATCH = 64 * 1024;
+    private static final @NotNull AtomicLongFieldUpdater<Tally> TOTAL = AtomicLongFieldUpdater.newUpdater(Tally.class, "total");
+    private static final @NotNull AtomicLongFieldUpdater<Tally> FLUSHED = AtomicLongFieldUpdater.newUpdater(Tally.class, "flushed");
+
+    private final @NotNull Bytes bytes;
+    private volatile long total;
+    private volatile long flushed;
+
+    private Tally(@NotNull Bytes bytes) {
+      this.bytes = bytes;
+    }
+
+    void add(long amount) {
+      final long total = this.total + amount;
+      TOTAL.lazySet(this, total);
+      if (total - flushed >= BATCH) {
+        flush();
+      }
+    }
+
+    void flush() {
+      final long total = this.total;
+      long flushed;
+      do {
+        flushed = this.flushed;
+        if (flushed >= total) {
+          return;
+        }
+      } while (!FLUSHED.compareAndSet(this, flushed, total));
+      bytes.value.inc(total - flushed);
+    }
+
+    void close() {
+      flush();
+      bytes.open.remove(this);
+    }
+  }
+}
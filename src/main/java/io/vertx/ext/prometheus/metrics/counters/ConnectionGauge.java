@@ -1,14 +1,19 @@
 package io.vertx.ext.prometheus.metrics.counters;
 
 import io.prometheus.client.Gauge;
+import io.vertx.ext.prometheus.metrics.factories.Family;
 import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
 import org.jetbrains.annotations.NotNull;
 
 public final class ConnectionGauge {
+  private final @NotNull Family<Gauge.Child> gauge;
+  private final @NotNull String localAddress;
   private final @NotNull Gauge.Child connections;
 
   public ConnectionGauge(@NotNull String name, @NotNull String localAddress, @NotNull GaugeFactory gauges) {
-    Gauge gauge = gauges.connections(name);
+    this.localAddress = localAddress;
+    gauge = gauges.connections(name);
+    gauge.claim(localAddress);
     connections = gauge.labels(localAddress);
   }
 
@@ -19,4 +24,11 @@ public final class ConnectionGauge {
   public void disconnected() {
     connections.dec();
   }
+
+  /**
+   * Releases the series of the local address, see {@link Family#release(String...)}.
+   */
+  public void close() {
+    gauge.release(localAddress);
+  }
 }
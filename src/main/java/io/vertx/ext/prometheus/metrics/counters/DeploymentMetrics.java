@@ -0,0 +1,64 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextImpl;
+import io.vertx.core.impl.Deployment;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Attributes handler processing time to the deployment owning the current Vert.x context, labelled by verticle
+ * identifier, so that the label stays bounded across instances and redeployments.
+ */
+public final class DeploymentMetrics {
+  private static final int MAX_CACHED_DEPLOYMENTS = 1024;
+  private static final @NotNull String JAVA_PREFIX = "java:";
+
+  private final @NotNull String type;
+  private final @NotNull HistogramFactory histograms;
+  private final @NotNull ConcurrentMap<String, TimeHistogram.Child> deployments = new ConcurrentHashMap<>();
+
+  /**
+   * @param type The kind of handlers, e.g. {@code httpserver}.
+   */
+  public DeploymentMetrics(@NotNull String type, @NotNull HistogramFactory histograms) {
+    this.type = type;
+    this.histograms = histograms;
+  }
+
+  /**
+   * @return time histogram of the deployment owning the current context, or null outside of deployments
+   */
+  public @Nullable TimeHistogram.Child current() {
+    final Context context = Vertx.currentContext();
+    if (!(context instanceof ContextImpl)) {
+      return null;
+    }
+    final Deployment deployment = ((ContextImpl) context).getDeployment();
+    return deployment == null ? null : time(identifier(deployment.verticleIdentifier()));
+  }
+
+  /**
+   * @param identifier verticle identifier, as deployed
+   * @return the identifier without the default {@code java:} prefix, like verticle class names elsewhere
+   */
+  public static @NotNull String identifier(@NotNull String identifier) {
+    return identifier.startsWith(JAVA_PREFIX) ? identifier.substring(JAVA_PREFIX.length()) : identifier;
+  }
+
+  private @NotNull TimeHistogram.Child time(@NotNull String deployment) {
+    final TimeHistogram.Child child = deployments.get(deployment);
+    if (child != null) {
+      return child;
+    }
+    return deployments.size() < MAX_CACHED_DEPLOYMENTS
+        ? deployments.computeIfAbsent(deployment, d -> histograms.deploymentTimeSeconds().labels(d, type))
+        : histograms.deploymentTimeSeconds().labels(deployment, type);
+  }
+}
@@ -1,41 +1,68 @@
 package io.vertx.ext.prometheus.metrics.counters;
 
 import io.prometheus.client.Gauge;
-import io.prometheus.client.Histogram;
+import io.vertx.ext.prometheus.MetricsType;
+import io.vertx.ext.prometheus.metrics.factories.Family;
 import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
 import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connections and queued requests of a remote endpoint, e.g. the connection pool of an HTTP client to a {@code host:port}.
+ * Endpoints with the same address share their series, which are removed once the last of them is closed.
+ */
 public final class EndpointMetrics {
-  private final @NotNull Gauge gauge;
-  private final @NotNull Stopwatch queueTime;
+  private final @NotNull Family<Gauge.Child> gauge;
+  private final @NotNull Family<TimeHistogram.Child> histogram;
   private final @NotNull String localAddress;
+  private final @NotNull String endpoint;
+  private final @NotNull Gauge.Child established;
+  private final @NotNull Gauge.Child queued;
+  private final @NotNull Stopwatch queueTime;
+  private final @NotNull AtomicBoolean closed = new AtomicBoolean();
 
-  public EndpointMetrics(@NotNull String name, @NotNull String localAddress, @NotNull GaugeFactory gauges, @NotNull HistogramFactory histograms) {
+  public EndpointMetrics(@NotNull MetricsType type, @NotNull String name, @NotNull String localAddress, @NotNull String endpoint, int maxPoolSize, @NotNull GaugeFactory gauges, @NotNull HistogramFactory histograms) {
     this.localAddress = localAddress;
+    this.endpoint = endpoint;
     gauge = gauges.endpoints(name);
-    queueTime = new Stopwatch(name + "_endpoints_queue", localAddress, histograms);
+    histogram = histograms.endpointQueueTimeSeconds(type, name);
+    gauge.claim(localAddress, endpoint);
+    histogram.claim(localAddress, endpoint);
+    established = gauge.labels(localAddress, endpoint, "established");
+    queued = gauge.labels(localAddress, endpoint, "queued");
+    gauge.labels(localAddress, endpoint, "max").set(maxPoolSize);
+    queueTime = new Stopwatch(histogram.labels(localAddress, endpoint));
   }
 
   public void increment() {
-    gauge("established").inc();
+    established.inc();
   }
 
   public void decrement() {
-    gauge("established").dec();
+    established.dec();
   }
 
-  public @NotNull Histogram.Timer enqueue() {
-    gauge("queued").inc();
-    return queueTime.start();
+  public @NotNull Timestamp enqueue() {
+    queued.inc();
+    return Timestamp.now();
   }
 
-  public void dequeue(@NotNull Histogram.Timer timer) {
-    gauge("queued").dec();
-    timer.observeDuration();
+  public void dequeue(@NotNull Timestamp timestamp) {
+    queued.dec();
+    timestamp.lap(queueTime).recycle();
   }
 
-  private @NotNull Gauge.Child gauge(@NotNull String name) {
-    return gauge.labels(localAddress, name);
+  /**
+   * Releases the series of the endpoint once, see {@link Family#release(String...)}.
+   */
+  public void close() {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+    gauge.release(localAddress, endpoint);
+    histogram.release(localAddress, endpoint);
   }
 }
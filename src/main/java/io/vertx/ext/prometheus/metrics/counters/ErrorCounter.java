@@ -2,24 +2,53 @@ package io.vertx.ext.prometheus.metrics.counters;
 
 import io.prometheus.client.Counter;
 import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.Family;
+import io.vertx.ext.prometheus.metrics.factories.Lease;
+import io.vertx.ext.prometheus.metrics.factories.SeriesTtl;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.function.Supplier;
 
+/**
+ * Errors by local address and class. With a {@link SeriesTtl}, the series of classes which did not occur for a while
+ * are evicted, see {@link Lease}.
+ */
 public final class ErrorCounter {
-  private final @NotNull Counter counter;
+  private final @NotNull Family<Counter.Child> counter;
   private final @NotNull Supplier<String> localAddress;
+  private final @Nullable String claimed;
 
+  /**
+   * Claims the series of the local address until {@link #close()}.
+   */
   public ErrorCounter(@NotNull String name, @NotNull String localAddress, @NotNull CounterFactory counters) {
-    this(name, () -> localAddress, counters);
+    this(name, () -> localAddress, localAddress, counters);
   }
 
   public ErrorCounter(@NotNull String name, @NotNull Supplier<String> localAddress, @NotNull CounterFactory counters) {
+    this(name, localAddress, null, counters);
+  }
+
+  private ErrorCounter(@NotNull String name, @NotNull Supplier<String> localAddress, @Nullable String claimed, @NotNull CounterFactory counters) {
     this.localAddress = localAddress;
+    this.claimed = claimed;
     counter = counters.errors(name);
+    if (claimed != null) {
+      counter.claim(claimed);
+    }
   }
 
   public void increment(@NotNull Throwable throwable) {
-    counter.labels(localAddress.get(), throwable.getClass().getSimpleName()).inc();
+    counter.touch(localAddress.get(), throwable.getClass().getSimpleName()).child().inc();
+  }
+
+  /**
+   * Releases the series of the local address, if claimed.
+   */
+  public void close() {
+    if (claimed != null) {
+      counter.release(claimed);
+    }
   }
 }
\ No newline at end of file
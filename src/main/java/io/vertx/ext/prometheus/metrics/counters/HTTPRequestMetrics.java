@@ -1,81 +1,440 @@
 package io.vertx.ext.prometheus.metrics.counters;
 
+import io.netty.util.Recycler;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
-import io.prometheus.client.Histogram;
 import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.prometheus.MetricsType;
 import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.Family;
 import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
 import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.Lease;
+import io.vertx.ext.prometheus.metrics.factories.SeriesTtl;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 public final class HTTPRequestMetrics {
-  private final @NotNull Gauge requests;
-  private final @NotNull Counter responses;
+  private static final int MIN_STATUS_CODE = 100;
+  private static final int MAX_STATUS_CODE = 599;
+  private static final int MAX_CACHED_HOSTS = 4096;
+  private static final int MAX_CACHED_ROUTES = 1024;
+
+  private final @NotNull Family<Gauge.Child> requests;
+  private final @NotNull Family<Counter.Child> responses;
   private final @NotNull Stopwatch proocessTime;
+  private final @NotNull Stopwatch roundTripTime;
+  private final @NotNull MetricsType type;
+  private final @NotNull String name;
   private final @NotNull String localAddress;
+  private final @NotNull CounterFactory counters;
+  private final @NotNull HistogramFactory histograms;
+  private final @NotNull SeriesTtl ttl;
+  private final @NotNull Runnable sweeper = this::sweep;
+  private @Nullable Stopwatch sentTime;
+  private @Nullable Stopwatch firstByteTime;
+  private @Nullable Family<TimeHistogram.Child> routeTime;
+  private @Nullable Family<Counter.Child> routeResponses;
+  private final @NotNull ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+  private final @NotNull Map<HttpMethod, ConcurrentMap<String, Requests>> hosts = new EnumMap<>(HttpMethod.class);
+  private final @NotNull Counter.Child[] statusCodes = new Counter.Child[MAX_STATUS_CODE - MIN_STATUS_CODE + 1];
+  private final @NotNull ConcurrentLinkedQueue<Family<?>> claimed = new ConcurrentLinkedQueue<>();
 
-  public HTTPRequestMetrics(@NotNull String name, @NotNull String localAddress, @NotNull GaugeFactory gauges, @NotNull CounterFactory counters, @NotNull HistogramFactory histograms) {
+  /**
+   * Claims the series of the local address in every family until {@link #close()}.
+   * With a {@link SeriesTtl}, the series of hosts without requests for a while are evicted, see {@link Lease}.
+   */
+  public HTTPRequestMetrics(@NotNull MetricsType type, @NotNull String name, @NotNull String localAddress, @NotNull GaugeFactory gauges, @NotNull CounterFactory counters, @NotNull HistogramFactory histograms) {
+    this.type = type;
+    this.name = name;
     this.localAddress = localAddress;
-    requests = gauges.httpRequests(name);
-    responses = counters.httpResponses(name);
-    proocessTime = new Stopwatch(name + "_requests", localAddress, histograms);
+    this.counters = counters;
+    this.histograms = histograms;
+    ttl = gauges.ttl();
+    requests = claim(gauges.httpRequests(name));
+    responses = claim(counters.httpResponses(name));
+    proocessTime = new Stopwatch(claim(histograms.timeSeconds(type, name + "_requests")).labels(localAddress));
+    roundTripTime = phase("round_trip", "Time from the start of requests to the end of their responses in seconds");
+    for (HttpMethod method : HttpMethod.values()) {
+      hosts.put(method, new ConcurrentHashMap<>());
+    }
+    ttl.add(sweeper);
   }
 
+  /**
+   * Begins a request whose metric ends with the response, or with a reset.
+   */
   public @NotNull Metric begin(@NotNull HttpMethod method, @NotNull String host) {
-    requests(method.name(), host, "active").inc();
-    requests(method.name(), host, "total").inc();
-    return new Metric(method, host, proocessTime.start());
+    return begin(method, host, 1);
   }
 
+  /**
+   * Begins a request whose metric ends with both the end of the request and the response, or with a reset.
+   */
+  public @NotNull Metric beginExchange(@NotNull HttpMethod method, @NotNull String host) {
+    return begin(method, host, 2);
+  }
+
+  /**
+   * Ends the response phase of the metric, unless its response already ended. The request phase of an exchange still
+   * ends with the request, so the metric is only recycled once both did.
+   */
   public void reset(@NotNull Metric metric) {
-    metric.resetTimer(proocessTime.start());
-    requests(metric, "reset").inc();
-    requests(metric, "processed").inc();
-    requests(metric, "active").dec();
+    metric.requests.inc(State.Reset);
+    if (metric.deactivate()) {
+      metric.lap(proocessTime);
+      metric.requests.inc(State.Processed);
+      metric.end();
+    }
+  }
+
+  public void responseBegin(@NotNull Metric metric) {
+    metric.since(firstByteTime());
   }
 
   public void responseEnd(@NotNull Metric metric, int responseStatusCode) {
-    metric.resetTimer(proocessTime.start());
-    requests(metric, "active").dec();
-    requests(metric, "processed").inc();
+    if (!metric.deactivate()) {
+      // the request was reset already
+      return;
+    }
+    metric.lap(proocessTime);
+    final long end = metric.since(roundTripTime);
+    metric.requests.inc(State.Processed);
     responses(responseStatusCode).inc();
+    final String route = metric.route;
+    if (route != null) {
+      route(route).end(end - metric.begin, responseStatusCode);
+    }
+    final TimeHistogram.Child deployment = metric.deployment;
+    if (deployment != null) {
+      deployment.observe(end - metric.begin);
+    }
+    metric.end();
   }
 
   public void requestEnd(@NotNull Metric metric) {
-    metric.resetTimer(proocessTime.start());
+    metric.lap(proocessTime);
+    metric.since(sentTime());
+    metric.end();
   }
 
+  /**
+   * Ends the response phase of the metric, as no response ends once the request is upgraded to a WebSocket.
+   */
   public void upgrade(@NotNull Metric metric) {
-    requests(metric, "upgraded").inc();
+    if (metric.deactivate()) {
+      metric.requests.inc(State.Upgraded);
+      metric.end();
+    }
+  }
+
+  /**
+   * Releases the series of the local address, see {@link Family#release(String...)}.
+   */
+  public void close() {
+    ttl.remove(sweeper);
+    Family<?> family;
+    while ((family = claimed.poll()) != null) {
+      family.release(localAddress);
+    }
+  }
+
+  private @NotNull Metric begin(@NotNull HttpMethod method, @NotNull String host, int phases) {
+    final Requests requests = requests(method, host);
+    final Lease<Gauge.Child> active = requests.pin(State.Active);
+    active.child().inc();
+    requests.inc(State.Total);
+    return Metric.start(requests, active, phases);
+  }
+
+  private @NotNull Stopwatch sentTime() {
+    Stopwatch stopwatch = sentTime;
+    if (stopwatch == null) {
+      stopwatch = phase("sent", "Time from the start of requests until they are sent in seconds");
+      sentTime = stopwatch;
+    }
+    return stopwatch;
+  }
+
+  private @NotNull Stopwatch firstByteTime() {
+    Stopwatch stopwatch = firstByteTime;
+    if (stopwatch == null) {
+      stopwatch = phase("first_byte", "Time from the start of requests to the first byte of their responses in seconds");
+      firstByteTime = stopwatch;
+    }
+    return stopwatch;
+  }
+
+  /**
+   * Histograms of the phases are only created once observed, as servers don't see when requests are sent.
+   * Threads racing to create one may each build a stopwatch, claiming the histogram once more; both observe the child
+   * of the local address, which is never evicted while claimed, and {@link #close()} releases every claim.
+   */
+  private @NotNull Stopwatch phase(@NotNull String phase, @NotNull String help) {
+    return new Stopwatch(claim(histograms.timeSeconds(type, name + "_requests_" + phase, help)).labels(localAddress));
+  }
+
+  private <C> @NotNull Family<C> claim(@NotNull Family<C> family) {
+    family.claim(localAddress);
+    claimed.add(family);
+    return family;
+  }
+
+  private @NotNull Family<TimeHistogram.Child> routeTime() {
+    Family<TimeHistogram.Child> family = routeTime;
+    if (family == null) {
+      family = claim(histograms.routeTimeSeconds(type, name));
+      routeTime = family;
+    }
+    return family;
+  }
+
+  private @NotNull Family<Counter.Child> routeResponses() {
+    Family<Counter.Child> family = routeResponses;
+    if (family == null) {
+      family = claim(counters.httpRouteResponses(name));
+      routeResponses = family;
+    }
+    return family;
+  }
+
+  private @NotNull Route route(@NotNull String template) {
+    final Route route = routes.get(template);
+    if (route != null) {
+      return route;
+    }
+    return routes.size() < MAX_CACHED_ROUTES ? routes.computeIfAbsent(template, Route::new) : new Route(template);
   }
 
   private @NotNull Counter.Child responses(int responseStatusCode) {
-    return responses.labels(localAddress, Integer.toString(responseStatusCode));
+    if (responseStatusCode < MIN_STATUS_CODE || responseStatusCode > MAX_STATUS_CODE) {
+      return responses.labels(localAddress, Integer.toString(responseStatusCode));
+    }
+    final int index = responseStatusCode - MIN_STATUS_CODE;
+    Counter.Child child = statusCodes[index];
+    if (child == null) {
+      child = responses.labels(localAddress, Integer.toString(responseStatusCode));
+      statusCodes[index] = child;
+    }
+    return child;
   }
 
-  private @NotNull Gauge.Child requests(@NotNull HTTPRequestMetrics.@NotNull Metric metric, @NotNull String state) {
-    return requests(metric.method.name(), metric.path, state);
+  private @NotNull Requests requests(@NotNull HttpMethod method, @NotNull String host) {
+    final ConcurrentMap<String, Requests> byHost = hosts.get(method);
+    final Requests requests = byHost.get(host);
+    if (requests != null) {
+      return requests;
+    }
+    return byHost.size() < MAX_CACHED_HOSTS ? byHost.computeIfAbsent(host, h -> new Requests(method, h)) : new Requests(method, host);
   }
 
-  private @NotNull Gauge.Child requests(@NotNull String method, @NotNull String host, @NotNull String state) {
-    return requests.labels(localAddress, method, host, state);
+  /**
+   * Drops the requests of hosts whose series were all evicted from the cache.
+   */
+  private void sweep() {
+    hosts.values().forEach(byHost -> byHost.values().removeIf(Requests::isEvicted));
   }
 
+  private enum State {
+    Active("active"),
+    Total("total"),
+    Reset("reset"),
+    Processed("processed"),
+    Upgraded("upgraded");
+
+    private final @NotNull String label;
+
+    private State(@NotNull String label) {
+      this.label = label;
+    }
+  }
+
+  /**
+   * Leases of the request states for a method and host, taken on first use and again once evicted, see
+   * {@link Family#lease(String...)}.
+   * Metrics keep the active gauge pinned until their request ends, so it isn't evicted while requests are active.
+   */
+  private final class Requests {
+    private final @NotNull String method;
+    private final @NotNull String host;
+    @SuppressWarnings("unchecked")
+    private final @NotNull Lease<Gauge.Child>[] states = new Lease[State.values().length];
+
+    Requests(@NotNull HttpMethod method, @NotNull String host) {
+      this.method = method.name();
+      this.host = host;
+    }
+
+    void inc(@NotNull State state) {
+      final int index = state.ordinal();
+      Lease<Gauge.Child> lease = states[index];
+      while (lease == null || !lease.touch()) {
+        lease = requests.lease(localAddress, method, host, state.label);
+        states[index] = lease;
+      }
+      lease.child().inc();
+    }
+
+    @NotNull Lease<Gauge.Child> pin(@NotNull State state) {
+      final int index = state.ordinal();
+      Lease<Gauge.Child> lease = states[index];
+      while (lease == null || !lease.pin()) {
+        lease = requests.lease(localAddress, method, host, state.label);
+        states[index] = lease;
+      }
+      return lease;
+    }
+
+    boolean isEvicted() {
+      for (Lease<Gauge.Child> lease : states) {
+        if (lease != null && !lease.isEvicted()) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Children of the latency and responses of a route, resolved on first use like {@link Requests}.
+   */
+  private final class Route {
+    private final @NotNull String template;
+    private final @NotNull TimeHistogram.Child time;
+    private final @NotNull Counter.Child[] statusCodes = new Counter.Child[MAX_STATUS_CODE - MIN_STATUS_CODE + 1];
+
+    Route(@NotNull String template) {
+      this.template = template;
+      time = routeTime().labels(localAddress, template);
+    }
+
+    void end(long nanos, int responseStatusCode) {
+      time.observe(nanos);
+      responses(responseStatusCode).inc();
+    }
+
+    private @NotNull Counter.Child responses(int responseStatusCode) {
+      if (responseStatusCode < MIN_STATUS_CODE || responseStatusCode > MAX_STATUS_CODE) {
+        return routeResponses().labels(localAddress, template, Integer.toString(responseStatusCode));
+      }
+      final int index = responseStatusCode - MIN_STATUS_CODE;
+      Counter.Child child = statusCodes[index];
+      if (child == null) {
+        child = routeResponses().labels(localAddress, template, Integer.toString(responseStatusCode));
+        statusCodes[index] = child;
+      }
+      return child;
+    }
+  }
+
+  /**
+   * Metric of a request, recycled per thread once all of its phases ended.
+   * The processing time of each phase is observed from raw timestamps; the request phases share the begin timestamp.
+   */
   public static final class Metric {
-    private final @NotNull HttpMethod method;
-    private final @NotNull String path;
-    private @NotNull Histogram.Timer timer;
+    private static final @NotNull Recycler<Metric> RECYCLER = new Recycler<Metric>() {
+      @Override
+      protected @NotNull Metric newObject(@NotNull Handle<Metric> handle) {
+        return new Metric(handle);
+      }
+    };
+
+    private final @NotNull Recycler.Handle<Metric> handle;
+    private @NotNull Requests requests;
+    private @Nullable Lease<Gauge.Child> active;
+    private @Nullable Object key;
+    private @Nullable String route;
+    private @Nullable TimeHistogram.Child deployment;
+    private long begin;
+    private long start;
+    private int phases;
+
+    private Metric(@NotNull Recycler.Handle<Metric> handle) {
+      this.handle = handle;
+    }
+
+    private static @NotNull Metric start(@NotNull Requests requests, @NotNull Lease<Gauge.Child> active, int phases) {
+      final Metric metric = RECYCLER.get();
+      metric.requests = requests;
+      metric.active = active;
+      metric.key = null;
+      metric.route = null;
+      metric.deployment = null;
+      metric.phases = phases;
+      metric.begin = System.nanoTime();
+      metric.start = metric.begin;
+      return metric;
+    }
+
+    /**
+     * @return the key attached with {@link #key(Object)}, if any
+     */
+    public @Nullable Object key() {
+      return key;
+    }
+
+    /**
+     * Attaches the key the metric is looked up by until it ends.
+     */
+    public void key(@NotNull Object key) {
+      this.key = key;
+    }
+
+    /**
+     * Labels the latency and response of the request by a route template, once the response ends.
+     */
+    public void route(@NotNull String route) {
+      this.route = route;
+    }
+
+    /**
+     * Attributes the time until the response ends to a deployment.
+     */
+    public void deployment(@Nullable TimeHistogram.Child deployment) {
+      this.deployment = deployment;
+    }
+
+    /**
+     * @return Whether the request was still active, so the response phase ends now.
+     */
+    private boolean deactivate() {
+      final Lease<Gauge.Child> lease = active;
+      if (lease == null) {
+        return false;
+      }
+      active = null;
+      lease.child().dec();
+      lease.unpin();
+      return true;
+    }
+
+    private void lap(@NotNull Stopwatch stopwatch) {
+      start = stopwatch.lap(start);
+    }
+
+    private long since(@NotNull Stopwatch stopwatch) {
+      return stopwatch.lap(begin);
+    }
 
-    public Metric(@NotNull HttpMethod method, @NotNull String path, @NotNull Histogram.Timer timer) {
-      this.method = method;
-      this.path = path;
-      this.timer = timer;
+    private void end() {
+      if (--phases == 0) {
+        recycle();
+      }
     }
 
-    public void resetTimer(@NotNull Histogram.Timer newTimer) {
-      timer.observeDuration();
-      timer = newTimer;
+    private void recycle() {
+      phases = 0;
+      active = null;
+      key = null;
+      deployment = null;
+      handle.recycle(this);
     }
   }
 }
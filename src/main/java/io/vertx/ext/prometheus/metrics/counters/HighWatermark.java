@@ -0,0 +1,87 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import io.prometheus.client.Gauge;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Gauge child exposing the highest value observed in the current and the previous fixed time slot, so short spikes
+ * between scrapes are not lost, and a later, lower spike shows up once an earlier one is a slot behind. Values are
+ * either observed directly, or tracked as a level with {@link #increment()} and {@link #decrement()}.
+ * Slots are rotated by time rather than by collecting, so any number of scrapers, pushers and cluster scrapes read
+ * the same value; with slots at least as long as the scrape interval, every spike is seen by a scrape.
+ */
+public final class HighWatermark extends Gauge.Child {
+  private static final @NotNull AtomicLongFieldUpdater<HighWatermark> MAX = AtomicLongFieldUpdater.newUpdater(HighWatermark.class, "max");
+  private static final @NotNull AtomicLongFieldUpdater<HighWatermark> LEVEL = AtomicLongFieldUpdater.newUpdater(HighWatermark.class, "level");
+
+  private final long window;
+  private final double unit;
+  private volatile long slot;
+  private volatile long max;
+  private volatile long previous;
+  private volatile long level;
+
+  /**
+   * @param window The length of a slot in milliseconds.
+   */
+  public HighWatermark(long window) {
+    this(window, 1);
+  }
+
+  /**
+   * @param window The length of a slot in milliseconds.
+   * @param unit The divisor of observed values, e.g. {@link io.prometheus.client.Collector#NANOSECONDS_PER_SECOND}.
+   */
+  public HighWatermark(long window, double unit) {
+    this.window = TimeUnit.MILLISECONDS.toNanos(window);
+    this.unit = unit;
+    slot = Math.floorDiv(System.nanoTime(), this.window);
+  }
+
+  /**
+   * Raises the watermark of the current slot to the value, unless it is already higher. Only contends with other
+   * writers when the watermark actually rises, or once per slot when it is rotated.
+   */
+  public void observe(long value) {
+    rotate();
+    long max = this.max;
+    while (value > max && !MAX.compareAndSet(this, max, value)) {
+      max = this.max;
+    }
+  }
+
+  public void increment() {
+    observe(LEVEL.incrementAndGet(this));
+  }
+
+  public void decrement() {
+    LEVEL.decrementAndGet(this);
+  }
+
+  @Override
+  public double get() {
+    rotate();
+    return Math.max(max, previous) / unit;
+  }
+
+  /**
+   * Starts a new slot once its time came, at the current level. A slot without any update in between is a quiet one,
+   * which stayed at the current level too.
+   */
+  private void rotate() {
+    final long now = Math.floorDiv(System.nanoTime(), window);
+    if (now != slot) {
+      synchronized (this) {
+        if (now > slot) {
+          final long level = this.level;
+          final long last = MAX.getAndSet(this, level);
+          previous = now == slot + 1 ? last : level;
+          slot = now;
+        }
+      }
+    }
+  }
+}
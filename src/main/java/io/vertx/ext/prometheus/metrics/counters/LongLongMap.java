@@ -0,0 +1,123 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative {@code long} keys to {@code long} values, without boxing.
+ * Linear probing with backward-shift deletion, so removals leave no tombstones. Not thread-safe.
+ */
+final class LongLongMap {
+  private static final long EMPTY = -1;
+  private static final long PHI = 0x9E3779B97F4A7C15L;
+
+  private @NotNull long[] keys;
+  private @NotNull long[] values;
+  private int shift;
+  private int size;
+
+  /**
+   * @param capacity initial capacity, rounded up to a power of two
+   */
+  LongLongMap(int capacity) {
+    final int bits = Math.max(32 - Integer.numberOfLeadingZeros(capacity - 1), 1);
+    allocate(bits);
+  }
+
+  int size() {
+    return size;
+  }
+
+  void put(long key, long value) {
+    if (key < 0) {
+      throw new IllegalArgumentException("Keys must not be negative");
+    }
+    if (size * 2 >= keys.length) {
+      resize();
+    }
+    final int mask = keys.length - 1;
+    int i = index(key);
+    while (true) {
+      final long k = keys[i];
+      if (k == EMPTY) {
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        return;
+      }
+      if (k == key) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  /**
+   * @return the value of the removed key, or {@code absent} if there was none
+   */
+  long remove(long key, long absent) {
+    final int mask = keys.length - 1;
+    int i = index(key);
+    while (true) {
+      final long k = keys[i];
+      if (k == EMPTY) {
+        return absent;
+      }
+      if (k == key) {
+        final long value = values[i];
+        close(i);
+        size--;
+        return value;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  /**
+   * Moves entries after the removed slot back into it, as long as that keeps them reachable from their home slot.
+   */
+  private void close(int gap) {
+    final int mask = keys.length - 1;
+    int i = gap;
+    while (true) {
+      i = (i + 1) & mask;
+      final long k = keys[i];
+      if (k == EMPTY) {
+        keys[gap] = EMPTY;
+        return;
+      }
+      final int home = index(k);
+      final boolean reachable = gap <= i ? home > gap && home <= i : home > gap || home <= i;
+      if (!reachable) {
+        keys[gap] = k;
+        values[gap] = values[i];
+        gap = i;
+      }
+    }
+  }
+
+  private int index(long key) {
+    return (int) ((key * PHI) >>> shift);
+  }
+
+  private void resize() {
+    final long[] oldKeys = keys;
+    final long[] oldValues = values;
+    allocate(65 - shift);
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != EMPTY) {
+        put(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private void allocate(int bits) {
+    keys = new long[1 << bits];
+    values = new long[1 << bits];
+    Arrays.fill(keys, EMPTY);
+    shift = 64 - bits;
+  }
+}
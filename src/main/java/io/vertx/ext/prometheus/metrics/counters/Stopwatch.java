@@ -1,18 +1,33 @@
 package io.vertx.ext.prometheus.metrics.counters;
 
-import io.prometheus.client.Histogram;
+import io.vertx.ext.prometheus.MetricsType;
 import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
 import org.jetbrains.annotations.NotNull;
 
+/**
+ * Observes durations between raw {@link System#nanoTime()} timestamps, without timer objects.
+ */
 public final class Stopwatch {
-  private final @NotNull Histogram.Child time;
+  private final @NotNull TimeHistogram.Child time;
 
-  public Stopwatch(@NotNull String name, @NotNull String localAddress, @NotNull HistogramFactory histograms) {
-    Histogram summary = histograms.timeSeconds(name);
-    time = summary.labels(localAddress);
+  public Stopwatch(@NotNull MetricsType type, @NotNull String name, @NotNull String localAddress, @NotNull HistogramFactory histograms) {
+    this(histograms.timeSeconds(type, name).labels(localAddress));
   }
 
-  public @NotNull Histogram.Timer start() {
-    return time.startTimer();
+  public Stopwatch(@NotNull TimeHistogram.Child time) {
+    this.time = time;
+  }
+
+  /**
+   * Observes the time since the start.
+   *
+   * @param start timestamp of the start, from {@link System#nanoTime()}
+   * @return timestamp to start the next lap with
+   */
+  public long lap(long start) {
+    final long now = System.nanoTime();
+    time.observe(now - start);
+    return now;
   }
 }
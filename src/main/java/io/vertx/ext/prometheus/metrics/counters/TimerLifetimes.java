@@ -0,0 +1,68 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import io.vertx.ext.prometheus.metrics.factories.Family;
+import io.vertx.ext.prometheus.metrics.factories.TimeHistogram;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lifetime of timers, from their creation until they fire or are cancelled.
+ * Creation times are kept by timer id in primitive maps, striped by id so that event loops creating and ending
+ * timers concurrently rarely contend for the same lock.
+ * <p>
+ * Vert.x reports the creation of a timer once it is scheduled, so a short timer may end first. Its end is then kept
+ * until the creation is reported, and it is observed with a lifetime of zero.
+ */
+public final class TimerLifetimes {
+  private static final int STRIPES = 64;
+  private static final int INITIAL_CAPACITY = 256;
+  private static final long ABSENT = Long.MIN_VALUE;
+  private static final long ENDED_FIRED = Long.MIN_VALUE + 1;
+  private static final long ENDED_CANCELLED = Long.MIN_VALUE + 2;
+
+  private final @NotNull LongLongMap[] created = new LongLongMap[STRIPES];
+  private final @NotNull TimeHistogram.Child fired;
+  private final @NotNull TimeHistogram.Child cancelled;
+
+  public TimerLifetimes(@NotNull Family<TimeHistogram.Child> histogram) {
+    for (int i = 0; i < STRIPES; i++) {
+      created[i] = new LongLongMap(INITIAL_CAPACITY);
+    }
+    fired = histogram.labels("fired");
+    cancelled = histogram.labels("cancelled");
+  }
+
+  public void created(long id) {
+    final long now = System.nanoTime();
+    final LongLongMap stripe = stripe(id);
+    final long ended;
+    synchronized (stripe) {
+      ended = stripe.remove(id, ABSENT);
+      if (ended == ABSENT) {
+        stripe.put(id, now);
+      }
+    }
+    if (ended != ABSENT) {
+      (ended == ENDED_CANCELLED ? cancelled : fired).observe(0);
+    }
+  }
+
+  public void ended(long id, boolean cancelled) {
+    final long now = System.nanoTime();
+    final LongLongMap stripe = stripe(id);
+    final long created;
+    synchronized (stripe) {
+      created = stripe.remove(id, ABSENT);
+      if (created == ABSENT) {
+        stripe.put(id, cancelled ? ENDED_CANCELLED : ENDED_FIRED);
+      }
+    }
+    if (created != ABSENT) {
+      (cancelled ? this.cancelled : fired).observe(now - created);
+    }
+  }
+
+  private @NotNull LongLongMap stripe(long id) {
+    // ids are sequential, so consecutive timers go to consecutive stripes
+    return created[(int) (id & (STRIPES - 1))];
+  }
+}
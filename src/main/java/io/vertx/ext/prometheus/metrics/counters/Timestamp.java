@@ -0,0 +1,61 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import io.netty.util.Recycler;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Start time for metrics SPIs which hand an object from one callback to the next.
+ * Instances are recycled per thread, so timing allocates nothing in steady state.
+ */
+public final class Timestamp {
+  private static final @NotNull Recycler<Timestamp> RECYCLER = new Recycler<Timestamp>() {
+    @Override
+    protected @NotNull Timestamp newObject(@NotNull Handle<Timestamp> handle) {
+      return new Timestamp(handle);
+    }
+  };
+
+  private final @NotNull Recycler.Handle<Timestamp> handle;
+  private long nanos;
+
+  private Timestamp(@NotNull Recycler.Handle<Timestamp> handle) {
+    this.handle = handle;
+  }
+
+  public static @NotNull Timestamp now() {
+    final Timestamp timestamp = RECYCLER.get();
+    timestamp.nanos = System.nanoTime();
+    return timestamp;
+  }
+
+  /**
+   * Observes the time since this timestamp and moves it to now.
+   *
+   * @param stopwatch stopwatch to observe the time with
+   * @return a reference to this, for the next callback
+   */
+  public @NotNull Timestamp lap(@NotNull Stopwatch stopwatch) {
+    nanos = stopwatch.lap(nanos);
+    return this;
+  }
+
+  /**
+   * Observes the time since this timestamp and returns it for reuse; it must not be used anymore.
+   *
+   * @param stopwatch stopwatch to observe the time with
+   * @return the observed time in nanoseconds
+   */
+  public long finish(@NotNull Stopwatch stopwatch) {
+    final long start = nanos;
+    final long end = stopwatch.lap(start);
+    recycle();
+    return end - start;
+  }
+
+  /**
+   * Returns this timestamp for reuse; it must not be used anymore.
+   */
+  public void recycle() {
+    handle.recycle(this);
+  }
+}
@@ -2,60 +2,117 @@ package io.vertx.ext.prometheus.metrics.factories;
 
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Counter;
+import io.prometheus.client.SimpleCollector;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 /**
  * Factory for shared counters.
- * Counters are identified by name and can only be registered once with a name.
+ * Counters are identified by name and shared with the other factories of the {@link CollectorRegistry}, see {@link SharedCollectors}.
  *
  * @author jansorg
  */
 public class CounterFactory {
   private final CollectorRegistry registry;
-  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final boolean sharded;
+  private final SeriesLimit limit;
+  private final SeriesTtl ttl;
+  private final Map<String, Family<Counter.Child>> counters = new ConcurrentHashMap<>();
 
   public CounterFactory(CollectorRegistry registry) {
+    this(registry, false, SeriesLimit.unlimited());
+  }
+
+  /**
+   * @param registry The registry to register the counters with.
+   * @param sharded Whether event loops update their own shards of the counters, merged on collect.
+   * @param limit The limit of series per counter.
+   */
+  public CounterFactory(CollectorRegistry registry, boolean sharded, SeriesLimit limit) {
+    this(registry, sharded, limit, SeriesTtl.disabled());
+  }
+
+  /**
+   * @param registry The registry to register the counters with.
+   * @param sharded Whether event loops update their own shards of the counters, merged on collect.
+   * @param limit The limit of series per counter.
+   * @param ttl The time to live of idle series with label values taken from traffic.
+   */
+  public CounterFactory(CollectorRegistry registry, boolean sharded, SeriesLimit limit, SeriesTtl ttl) {
     this.registry = registry;
+    this.sharded = sharded;
+    this.limit = limit;
+    this.ttl = ttl;
   }
 
   /**
-   * Unregisters the counters which were created by this factory from the registry.
+   * Releases the counters of this factory, unregistering those no other factory uses from the registry.
    */
   public void close() {
-    counters.values().forEach(registry::unregister);
+    counters.keySet().forEach(name -> SharedCollectors.release(registry, name));
+    counters.clear();
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
+   * @param decorator Creates the children of the counter around those holding the value.
    * @return A counter of bytes for the given name. Counters with the same name are shared.
    */
-  public Counter bytes(String name) {
-    return counters.computeIfAbsent("vertx_" + name + "_bytes", key -> register(Counter.build(key, "Read/written bytes")
-        .labelNames("local_address", "type").create()));
+  public Family<Counter.Child> bytes(String name, UnaryOperator<Counter.Child> decorator) {
+    return counters.computeIfAbsent("vertx_" + name + "_bytes", key -> register(key, DecoratedCounter.build(key, "Read/written bytes", sharded, decorator),
+        Labels.of("local_address", "type").fold("local_address")));
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
    * @return A counter for errors, identified by the given name. Counters with the same name are shared.
    */
-  public Counter errors(String name) {
-    return counters.computeIfAbsent("vertx_" + name + "_errors", key -> register(Counter.build(key, "Errors number")
-        .labelNames("local_address", "class").create()));
+  public Family<Counter.Child> errors(String name) {
+    return counters.computeIfAbsent("vertx_" + name + "_errors", key -> register(key, build(key, "Errors number"),
+        Labels.of("local_address", "class").fold("local_address", "class")));
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
    * @return A counter of http responses, identified by the given name. Counters with the same name are shared.
    */
-  public Counter httpResponses(String name) {
-    return counters.computeIfAbsent("vertx_" + name + "_responses", key -> register(Counter.build(key, "HTTP responses number")
-        .labelNames("local_address", "code").create()));
+  public Family<Counter.Child> httpResponses(String name) {
+    return counters.computeIfAbsent("vertx_" + name + "_responses", key -> register(key, build(key, "HTTP responses number"),
+        Labels.of("local_address", "code").fold("local_address")));
+  }
+
+  /**
+   * @param name The name of the counter, without prefix and suffix.
+   * @return A counter of http responses by route, identified by the given name. Counters with the same name are shared.
+   */
+  public Family<Counter.Child> httpRouteResponses(String name) {
+    return counters.computeIfAbsent("vertx_" + name + "_route_responses", key -> register(key, build(key, "HTTP responses number by route"),
+        Labels.of("local_address", "route", "code").fold("local_address", "route")));
+  }
+
+  /**
+   * @return A counter of rejected, succeeded and failed tasks of pools. It is shared by all pools.
+   */
+  public Family<Counter.Child> poolResults() {
+    return counters.computeIfAbsent("vertx_pool_results", key -> register(key, build(key, "Pool task results number"),
+        Labels.of("type", "name", "result").fold("name")));
+  }
+
+  /**
+   * @return A counter of the time tasks kept pools busy. It is shared by all pools.
+   */
+  public Family<Counter.Child> poolBusySeconds() {
+    return counters.computeIfAbsent("vertx_pool_busy_seconds", key -> register(key, build(key, "Time tasks kept the pool busy in seconds"),
+        Labels.of("type", "name").fold("name")));
+  }
+
+  private SimpleCollector.Builder<?, ? extends SimpleCollector<Counter.Child>> build(String name, String help) {
+    return sharded ? ShardedCounter.build(name, help) : Counter.build(name, help);
   }
 
-  private Counter register(Counter counter) {
-    registry.register(counter);
-    return counter;
+  private Family<Counter.Child> register(String name, SimpleCollector.Builder<?, ? extends SimpleCollector<Counter.Child>> counter, Labels labels) {
+    return SharedCollectors.acquire(registry, name, counter, labels, limit, ttl);
   }
 }
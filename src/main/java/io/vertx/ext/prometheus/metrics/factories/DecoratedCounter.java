@@ -0,0 +1,70 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.SimpleCollector;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Counter whose children are created by their owner, around a plain or sharded child holding the value.
+ * Exposed exactly like a {@link Counter}.
+ */
+final class DecoratedCounter extends SimpleCollector<Counter.Child> implements Collector.Describable {
+  private final boolean sharded;
+  private final @NotNull UnaryOperator<Counter.Child> decorator;
+
+  private DecoratedCounter(@NotNull Builder builder) {
+    super(builder);
+    this.sharded = builder.sharded;
+    this.decorator = builder.decorator;
+  }
+
+  static @NotNull Builder build(@NotNull String name, @NotNull String help, boolean sharded, @NotNull UnaryOperator<Counter.Child> decorator) {
+    return new Builder(sharded, decorator).name(name).help(help);
+  }
+
+  @Override
+  protected @NotNull Counter.Child newChild() {
+    // the super constructor creates the child of a counter without labels before the fields are set
+    if (decorator == null) {
+      return new Counter.Child();
+    }
+    return decorator.apply(sharded ? new ShardedCounter.Child() : new Counter.Child());
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> collect() {
+    final List<MetricFamilySamples.Sample> samples = new ArrayList<>(children.size());
+    for (Map.Entry<List<String>, Counter.Child> child : children.entrySet()) {
+      samples.add(new MetricFamilySamples.Sample(fullname, labelNames, child.getKey(), child.getValue().get()));
+    }
+    return familySamplesList(Type.COUNTER, samples);
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> describe() {
+    return Collections.singletonList(new CounterMetricFamily(fullname, help, labelNames));
+  }
+
+  static final class Builder extends SimpleCollector.Builder<Builder, DecoratedCounter> {
+    private final boolean sharded;
+    private final @NotNull UnaryOperator<Counter.Child> decorator;
+
+    private Builder(boolean sharded, @NotNull UnaryOperator<Counter.Child> decorator) {
+      this.sharded = sharded;
+      this.decorator = decorator;
+    }
+
+    @Override
+    public @NotNull DecoratedCounter create() {
+      return new DecoratedCounter(this);
+    }
+  }
+}
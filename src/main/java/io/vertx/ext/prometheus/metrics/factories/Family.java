@@ -0,0 +1,290 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Counter;
+import io.prometheus.client.SimpleCollector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * A metric family, resolving children of a collector within a {@link SeriesLimit}.
+ * Families are shared along with their collector by all Vert.x instances using the same registry, see
+ * {@link SharedCollectors}, and so are their series count, overflows, claims and {@link Lease leases}.
+ * Once the family is full, the values of its foldable {@link Labels} are folded into {@value #OVERFLOW}, while labels
+ * with a closed set of values, like states, keep theirs.
+ *
+ * @param <C> The child type of the collector.
+ */
+public final class Family<C> {
+  static final @NotNull String OVERFLOW = "__overflow__";
+  private static final int SWEEP_BATCH = 1024;
+
+  private final @NotNull SimpleCollector<C> collector;
+  private final int max;
+  private final @Nullable Counter.Child dropped;
+  private final @NotNull boolean[] folded;
+  private final @NotNull Set<List<String>> series = ConcurrentHashMap.newKeySet();
+  private final @NotNull Set<List<String>> drops = ConcurrentHashMap.newKeySet();
+  private final @NotNull AtomicInteger size = new AtomicInteger();
+  private final @NotNull Map<List<String>, Integer> claims = new HashMap<>();
+  private final long ttl;
+  private final @NotNull Map<List<String>, Lease<C>> leases = new ConcurrentHashMap<>();
+  private volatile int epoch;
+  private long epochStart = System.nanoTime();
+  private boolean sweeping;
+
+  /**
+   * @param dropped Counts the label combinations folded into the overflow series.
+   * @param ttl The time to live of idle leased children in milliseconds, {@code 0} to never evict them.
+   * @param folded Which labels are folded once the family is full, by position.
+   */
+  Family(@NotNull SimpleCollector<C> collector, int max, @Nullable Counter.Child dropped, long ttl, @NotNull boolean[] folded) {
+    this.collector = collector;
+    this.max = max;
+    this.dropped = dropped;
+    this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+    this.folded = folded;
+  }
+
+  /**
+   * @param values The label values.
+   * @return The child for the label values, or the overflow child if the family is full.
+   */
+  public @NotNull C labels(@NotNull String... values) {
+    return collector.labels(resolve(values));
+  }
+
+  /**
+   * The family keeps a single lease per child until it is evicted, so owners may cache leases in plain fields and
+   * arrays: threads racing to fill one take the same lease, and a stale one fails to {@link Lease#touch() touch} or
+   * {@link Lease#pin() pin}, so its owner takes the lease again.
+   *
+   * @param values The label values.
+   * @return The lease of the child for the label values, or of the overflow child if the family is full.
+   */
+  public synchronized @NotNull Lease<C> lease(@NotNull String... values) {
+    final String[] resolved = resolve(values);
+    final List<String> key = Arrays.asList(resolved);
+    Lease<C> lease = leases.get(key);
+    if (lease == null || lease.isEvicted()) {
+      lease = new Lease<>(this, resolved, collector.labels(resolved));
+      leases.put(key, lease);
+    }
+    return lease;
+  }
+
+  /**
+   * Leases the child for the label values and touches it for a momentary update, for owners which don't keep the lease.
+   *
+   * @param values The label values.
+   * @return The touched lease, see {@link Lease#touch()}.
+   */
+  public @NotNull Lease<C> touch(@NotNull String... values) {
+    Lease<C> lease;
+    do {
+      lease = lease(values);
+    } while (!lease.touch());
+    return lease;
+  }
+
+  /**
+   * Replaces the child for the label values, e.g. by one which accumulates updates differently.
+   *
+   * @param replacement Returns the new child for the current one, or the current child to keep it.
+   * @param values The label values.
+   * @return The child for the label values.
+   */
+  public synchronized @NotNull C replace(@NotNull UnaryOperator<C> replacement, @NotNull String... values) {
+    final String[] resolved = resolve(values);
+    final C child = collector.labels(resolved);
+    final C replaced = replacement.apply(child);
+    if (replaced != child) {
+      collector.setChild(replaced, resolved);
+    }
+    return replaced;
+  }
+
+  /**
+   * Claims the series whose first label values are the given ones, e.g. those of the local address of a server,
+   * until the claim is released.
+   *
+   * @param prefix The first label values of the series.
+   */
+  public void claim(@NotNull String... prefix) {
+    synchronized (claims) {
+      claims.merge(Arrays.asList(prefix), 1, Integer::sum);
+    }
+  }
+
+  /**
+   * Releases a claim, removing the claimed series from the family once no claim is left.
+   * Children resolved by the owners of the claims before are not exported anymore.
+   *
+   * @param prefix The first label values of the series, as claimed.
+   */
+  public void release(@NotNull String... prefix) {
+    synchronized (claims) {
+      final List<String> key = Arrays.asList(prefix);
+      if (!claims.containsKey(key)) {
+        return;
+      }
+      if (claims.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1) == null) {
+        removeIf(values -> values.size() >= key.size() && values.subList(0, key.size()).equals(key));
+      }
+    }
+  }
+
+  /**
+   * Removes the series of the label values from the family. Its lease is evicted, so owners still using it resolve
+   * a new child.
+   *
+   * @param values The label values.
+   */
+  public synchronized void remove(@NotNull String... values) {
+    final List<String> key = Arrays.asList(values);
+    final Lease<C> lease = leases.remove(key);
+    if (lease != null) {
+      lease.evict();
+    }
+    collector.remove(values);
+    if (max > 0 && series.remove(key)) {
+      size.decrementAndGet();
+    }
+  }
+
+  @NotNull SimpleCollector<C> collector() {
+    return collector;
+  }
+
+  boolean isEvictable() {
+    return ttl > 0;
+  }
+
+  int epoch() {
+    return epoch;
+  }
+
+  /**
+   * Evicts the leases which weren't touched nor pinned since the previous sweep, with their children, and starts a new
+   * epoch. A family shared by several Vert.x instances is swept by the {@link SeriesTtl} of each, but only once its
+   * own time to live passed.
+   * The leases are walked in batches of {@value #SWEEP_BATCH}, each evicted under the lock of the family, so owners
+   * taking a lease meanwhile wait for a batch rather than for the whole family. Leases touched or taken during the
+   * walk are stamped with the current epoch, and kept.
+   */
+  void sweep() {
+    final int current;
+    synchronized (this) {
+      if (!isEvictable() || sweeping || System.nanoTime() - epochStart < ttl) {
+        return;
+      }
+      sweeping = true;
+      current = epoch;
+    }
+    try {
+      final Iterator<Lease<C>> it = leases.values().iterator();
+      while (it.hasNext()) {
+        synchronized (this) {
+          for (int i = 0; i < SWEEP_BATCH && it.hasNext(); i++) {
+            evictIdle(it.next(), current);
+          }
+        }
+      }
+    } finally {
+      synchronized (this) {
+        epochStart = System.nanoTime();
+        epoch = current + 1;
+        sweeping = false;
+      }
+    }
+  }
+
+  /**
+   * The iterator of the leases may return one replaced since, which was evicted already and is left alone.
+   */
+  private void evictIdle(@NotNull Lease<C> lease, int epoch) {
+    if (!lease.evictIdle(epoch)) {
+      return;
+    }
+    final List<String> key = Arrays.asList(lease.values());
+    leases.remove(key, lease);
+    collector.remove(lease.values());
+    if (max > 0 && series.remove(key)) {
+      size.decrementAndGet();
+    }
+  }
+
+  /**
+   * Removes the series whose label values match from the family. Collects the family to find them, as children are
+   * only known from their samples: their label values start with those of the child, and histogram buckets add a
+   * label, so the fewest label values of a sample are those of the children.
+   *
+   * @param matching Whether the label values of a series match.
+   */
+  private void removeIf(@NotNull Predicate<List<String>> matching) {
+    final Set<List<String>> children = new HashSet<>();
+    for (MetricFamilySamples family : collector.collect()) {
+      final int labels = family.samples.stream().mapToInt(sample -> sample.labelValues.size()).min().orElse(0);
+      for (MetricFamilySamples.Sample sample : family.samples) {
+        final List<String> values = sample.labelValues.subList(0, labels);
+        if (matching.test(values)) {
+          children.add(values);
+        }
+      }
+    }
+    children.forEach(values -> remove(values.toArray(new String[0])));
+  }
+
+  private @NotNull String[] resolve(@NotNull String[] values) {
+    if (max <= 0) {
+      return values;
+    }
+    final List<String> key = Arrays.asList(values);
+    if (series.contains(key)) {
+      return values;
+    }
+    if (size.incrementAndGet() <= max) {
+      if (!series.add(key)) {
+        size.decrementAndGet();
+      }
+      return values;
+    }
+    size.decrementAndGet();
+    final String[] overflow = values.clone();
+    for (int i = 0; i < overflow.length && i < folded.length; i++) {
+      if (folded[i]) {
+        overflow[i] = OVERFLOW;
+      }
+    }
+    drop(key);
+    return overflow;
+  }
+
+  /**
+   * Counts a folded label combination once. Up to {@link #max} of them are remembered, like series; once that many
+   * were dropped, every update of a combination not remembered is counted, so the counter keeps growing while traffic
+   * brings new ones, rather than stopping.
+   */
+  private void drop(@NotNull List<String> key) {
+    final Counter.Child dropped = this.dropped;
+    if (dropped == null || drops.contains(key)) {
+      return;
+    }
+    if (drops.size() >= max || drops.add(key)) {
+      dropped.inc();
+    }
+  }
+}
@@ -2,70 +2,146 @@ package io.vertx.ext.prometheus.metrics.factories;
 
 import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.SimpleCollector;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A factory for shared gauges.
- * Gauges are identified by name, a gauge can only be shared once in a {@link CollectorRegistry}.
+ * Gauges are identified by name and shared with the other factories of the {@link CollectorRegistry}, see {@link SharedCollectors}.
  *
  * @author jansorg
  */
 public class GaugeFactory {
   private final CollectorRegistry registry;
-  private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+  private final boolean sharded;
+  private final SeriesLimit limit;
+  private final SeriesTtl ttl;
+  private final Map<String, Family<Gauge.Child>> gauges = new ConcurrentHashMap<>();
 
   public GaugeFactory(CollectorRegistry registry) {
+    this(registry, false, SeriesLimit.unlimited());
+  }
+
+  /**
+   * @param registry The registry to register the gauges with.
+   * @param sharded Whether event loops update their own shards of the gauges, merged on collect.
+   * @param limit The limit of series per gauge.
+   */
+  public GaugeFactory(CollectorRegistry registry, boolean sharded, SeriesLimit limit) {
+    this(registry, sharded, limit, SeriesTtl.disabled());
+  }
+
+  /**
+   * @param registry The registry to register the gauges with.
+   * @param sharded Whether event loops update their own shards of the gauges, merged on collect.
+   * @param limit The limit of series per gauge.
+   * @param ttl The time to live of idle series with label values taken from traffic.
+   */
+  public GaugeFactory(CollectorRegistry registry, boolean sharded, SeriesLimit limit, SeriesTtl ttl) {
     this.registry = registry;
+    this.sharded = sharded;
+    this.limit = limit;
+    this.ttl = ttl;
   }
 
   /**
-   * Unregisters the gauges created by this factory from the registry.
+   * @return The time to live of idle series with label values taken from traffic.
+   */
+  public SeriesTtl ttl() {
+    return ttl;
+  }
+
+  /**
+   * Releases the gauges of this factory, unregistering those no other factory uses from the registry.
    */
   public void close() {
-    gauges.values().forEach(registry::unregister);
+    gauges.keySet().forEach(name -> SharedCollectors.release(registry, name));
+    gauges.clear();
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
    * @return A gauge for http requests, identified by the given name. Gauges with the same name are shared.
    */
-  public Gauge httpRequests(String name) {
-    return gauges.computeIfAbsent("vertx_" + name + "_requests", key -> register(Gauge.build(key, "HTTP requests number")
-        .labelNames("local_address", "method", "host", "state")
-        .create()));
+  public Family<Gauge.Child> httpRequests(String name) {
+    return gauges.computeIfAbsent("vertx_" + name + "_requests", key -> register(key, build(key, "HTTP requests number"),
+        Labels.of("local_address", "method", "host", "state").fold("local_address", "host")));
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
    * @return A gauge for websockets, identified by the given name. Gauges with the same name are shared.
    */
-  public Gauge websockets(String name) {
-    return gauges.computeIfAbsent("vertx_" + name + "_websockets", key -> register(Gauge.build(key, "Websockets number")
-        .labelNames("local_address").create()));
+  public Family<Gauge.Child> websockets(String name) {
+    return gauges.computeIfAbsent("vertx_" + name + "_websockets", key -> register(key, build(key, "Websockets number"),
+        Labels.of("local_address").fold("local_address")));
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
    * @return A gauge for connections, identified by the given name. Gauges with the same name are shared.
    */
-  public Gauge connections(String name) {
-    return gauges.computeIfAbsent("vertx_" + name + "_connections", key -> register(Gauge.build(key, "Active connections number")
-        .labelNames("local_address").create()));
+  public Family<Gauge.Child> connections(String name) {
+    return gauges.computeIfAbsent("vertx_" + name + "_connections", key -> register(key, build(key, "Active connections number"),
+        Labels.of("local_address").fold("local_address")));
   }
 
   /**
    * @param name The name of the counter, without prefix and suffix.
-   * @return A gauge for endpoints, identified by the given name. Gauges with the same name are shared.
+   * @return A gauge for the connections and queued requests of remote endpoints, identified by the given name. Gauges with the same name are shared.
+   */
+  public Family<Gauge.Child> endpoints(String name) {
+    return gauges.computeIfAbsent("vertx_" + name + "_endpoints", key -> register(key, build(key, "Endpoints number"),
+        Labels.of("local_address", "endpoint", "state").fold("local_address", "endpoint")));
+  }
+
+  /**
+   * @return A gauge for the highest scheduling lag of event loops. It is shared by all event loops.
+   */
+  public Family<Gauge.Child> eventLoopMaxLag() {
+    return gauges.computeIfAbsent("vertx_eventloop_max_lag_seconds", key -> register(key, build(key, "Highest scheduling lag in seconds in the current and previous peak window"),
+        Labels.of("loop")));
+  }
+
+  /**
+   * @return A gauge for the highest number of queued and used tasks of pools. It is shared by all pools.
    */
-  public Gauge endpoints(String name) {
-    return gauges.computeIfAbsent("vertx_" + name + "_endpoints", key -> register(Gauge.build(key, "Endpoints number")
-        .labelNames("local_address", "state").create()));
+  public Family<Gauge.Child> poolTasksPeak() {
+    return gauges.computeIfAbsent("vertx_pool_tasks_peak", key -> register(key, build(key, "Highest number of tasks in the current and previous peak window"),
+        Labels.of("type", "name", "state").fold("name")));
+  }
+
+  /**
+   * @return A gauge for the tasks and maximum size of pools. It is shared by all pools.
+   */
+  public Family<Gauge.Child> poolTasks() {
+    return gauges.computeIfAbsent("vertx_pool_tasks", key -> register(key, build(key, "Pool queue metrics"),
+        Labels.of("type", "name", "state").fold("name")));
+  }
+
+  /**
+   * @return A gauge for the deployed verticles by class.
+   */
+  public Family<Gauge.Child> verticles() {
+    return gauges.computeIfAbsent("vertx_verticle_number", key -> register(key, build(key, "Deployed verticles number"),
+        Labels.of("class").fold("class")));
+  }
+
+  /**
+   * @return A gauge for the timers by state.
+   */
+  public Family<Gauge.Child> timers() {
+    return gauges.computeIfAbsent("vertx_timers_number", key -> register(key, build(key, "Timers number"),
+        Labels.of("state")));
+  }
+
+  private SimpleCollector.Builder<?, ? extends SimpleCollector<Gauge.Child>> build(String name, String help) {
+    return sharded ? ShardedGauge.build(name, help) : Gauge.build(name, help);
   }
 
-  private Gauge register(Gauge gauge) {
-    registry.register(gauge);
-    return gauge;
+  private Family<Gauge.Child> register(String name, SimpleCollector.Builder<?, ? extends SimpleCollector<Gauge.Child>> gauge, Labels labels) {
+    return SharedCollectors.acquire(registry, name, gauge, labels, limit, ttl);
   }
 }
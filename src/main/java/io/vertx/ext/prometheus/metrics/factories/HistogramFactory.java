@@ -1,43 +1,137 @@
 package io.vertx.ext.prometheus.metrics.factories;
 
 import io.prometheus.client.CollectorRegistry;
-import io.prometheus.client.Histogram;
+import io.vertx.ext.prometheus.Buckets;
+import io.vertx.ext.prometheus.MetricsType;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 
 /**
  * A factory for shared histograms.
+ * Histograms are identified by name and shared with the other factories of the {@link CollectorRegistry}, see {@link SharedCollectors}.
  *
  * @author jansorg
  */
 public class HistogramFactory {
   private final CollectorRegistry registry;
-  private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+  private final SeriesLimit limit;
+  private final BiFunction<MetricsType, String, Buckets> buckets;
+  private final Map<String, Family<TimeHistogram.Child>> histograms = new ConcurrentHashMap<>();
 
   public HistogramFactory(CollectorRegistry registry) {
+    this(registry, SeriesLimit.unlimited(), (type, name) -> Buckets.defaults());
+  }
+
+  /**
+   * @param registry The registry to register the histograms with.
+   * @param limit The limit of series per histogram.
+   * @param buckets The bucket layout of a histogram, by metrics type and full name.
+   */
+  public HistogramFactory(CollectorRegistry registry, SeriesLimit limit, BiFunction<MetricsType, String, Buckets> buckets) {
     this.registry = registry;
+    this.limit = limit;
+    this.buckets = buckets;
   }
 
   /**
-   * Unregisters the histograms created by this factory from the registry.
+   * Releases the histograms of this factory, unregistering those no other factory uses from the registry.
    */
   public void close() {
-    histograms.values().forEach(registry::unregister);
+    histograms.keySet().forEach(name -> SharedCollectors.release(registry, name));
+    histograms.clear();
   }
 
   /**
+   * @param type The metrics type the histogram belongs to.
    * @param name The name of the counter, without prefix and suffix.
    * @return A histogram for http requests, identified by the given name. Histograms with the same name are shared.
    */
-  public Histogram timeSeconds(String name) {
-    return histograms.computeIfAbsent("vertx_" + name + "_time_seconds", key -> register(Histogram.build(key, "Processing time in seconds")
-        .labelNames("local_address")
-        .create()));
+  public Family<TimeHistogram.Child> timeSeconds(MetricsType type, String name) {
+    return timeSeconds(type, name, "Processing time in seconds");
+  }
+
+  /**
+   * @param type The metrics type the histogram belongs to.
+   * @param name The name of the histogram, without prefix and suffix.
+   * @param help The help text of the histogram.
+   * @return A histogram of durations, identified by the given name. Histograms with the same name are shared.
+   */
+  public Family<TimeHistogram.Child> timeSeconds(MetricsType type, String name, String help) {
+    return histograms.computeIfAbsent("vertx_" + name + "_time_seconds", key -> register(key, TimeHistogram.build(key, help)
+        .buckets(buckets.apply(type, key)),
+        Labels.of("local_address").fold("local_address")));
+  }
+
+  /**
+   * @param type The metrics type the histogram belongs to.
+   * @param name The name of the histogram, without prefix and suffix.
+   * @return A histogram of http requests by route, identified by the given name. Histograms with the same name are shared.
+   */
+  public Family<TimeHistogram.Child> routeTimeSeconds(MetricsType type, String name) {
+    return histograms.computeIfAbsent("vertx_" + name + "_route_time_seconds", key -> register(key, TimeHistogram.build(key, "Processing time by route in seconds")
+        .buckets(buckets.apply(type, key)),
+        Labels.of("local_address", "route").fold("local_address", "route")));
+  }
+
+  /**
+   * @param type The metrics type the histogram belongs to.
+   * @param name The name of the histogram, without prefix and suffix.
+   * @return A histogram of the queue time of requests to remote endpoints, identified by the given name. Histograms with the same name are shared.
+   */
+  public Family<TimeHistogram.Child> endpointQueueTimeSeconds(MetricsType type, String name) {
+    return histograms.computeIfAbsent("vertx_" + name + "_endpoints_queue_time_seconds", key -> register(key, TimeHistogram.build(key, "Queue time in seconds")
+        .buckets(buckets.apply(type, key)),
+        Labels.of("local_address", "endpoint").fold("local_address", "endpoint")));
+  }
+
+  /**
+   * @return A histogram for pool tasks. It is shared by all pools.
+   */
+  public Family<TimeHistogram.Child> poolTimeSeconds() {
+    return histograms.computeIfAbsent("vertx_pool_time_seconds", key -> register(key, TimeHistogram.build(key, "Pool time metrics in seconds")
+        .buckets(buckets.apply(MetricsType.Pools, key)),
+        Labels.of("type", "name", "state").fold("name")));
+  }
+
+  /**
+   * @return A histogram for the scheduling lag of event loops. It is shared by all event loops.
+   */
+  public Family<TimeHistogram.Child> eventLoopLagSeconds() {
+    return histograms.computeIfAbsent("vertx_eventloop_lag_seconds", key -> register(key, TimeHistogram.build(key, "Scheduling lag in seconds")
+        .buckets(buckets.apply(MetricsType.EventLoops, key)),
+        Labels.of("loop")));
+  }
+
+  /**
+   * @return A histogram for the lifetime of timers, by whether they fired or were cancelled.
+   */
+  public Family<TimeHistogram.Child> timerLifetimeSeconds() {
+    return histograms.computeIfAbsent("vertx_timers_lifetime_seconds", key -> register(key, TimeHistogram.build(key, "Timer lifetime in seconds")
+        .buckets(buckets.apply(MetricsType.Timers, key)),
+        Labels.of("state")));
+  }
+
+  /**
+   * @return A histogram for the deploy and undeploy time of verticles.
+   */
+  public Family<TimeHistogram.Child> verticleTimeSeconds() {
+    return histograms.computeIfAbsent("vertx_verticle_time_seconds", key -> register(key, TimeHistogram.build(key, "Verticle deploy and undeploy time in seconds")
+        .buckets(buckets.apply(MetricsType.Verticles, key)),
+        Labels.of("class", "phase").fold("class")));
+  }
+
+  /**
+   * @return A histogram for the handler processing time of deployments. It is shared by all handler types.
+   */
+  public Family<TimeHistogram.Child> deploymentTimeSeconds() {
+    return histograms.computeIfAbsent("vertx_deployment_time_seconds", key -> register(key, TimeHistogram.build(key, "Handler processing time by deployment in seconds")
+        .buckets(buckets.apply(MetricsType.Verticles, key)),
+        Labels.of("deployment", "type").fold("deployment")));
   }
 
-  private Histogram register(Histogram histogram) {
-    registry.register(histogram);
-    return histogram;
+  private Family<TimeHistogram.Child> register(String name, TimeHistogram.Builder histogram, Labels labels) {
+    return SharedCollectors.acquire(registry, name, histogram, labels, limit, SeriesTtl.disabled());
   }
 }
@@ -0,0 +1,64 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The label names of a family, and those whose values are folded into {@value Family#OVERFLOW} once the family is
+ * full, see {@link SeriesLimit}. Labels taken from traffic or configuration, like hosts, addresses and pool names, are
+ * declared foldable; labels with a closed set of values, like states, keep theirs. A family without foldable labels
+ * folds all of them, so that no family exceeds its limit.
+ */
+public final class Labels {
+  private final @NotNull String[] names;
+  private final @NotNull boolean[] folded;
+
+  private Labels(@NotNull String[] names, @NotNull boolean[] folded) {
+    this.names = names;
+    this.folded = folded;
+  }
+
+  /**
+   * @param names The label names, in order.
+   * @return Labels of which none are declared foldable yet.
+   */
+  public static @NotNull Labels of(@NotNull String... names) {
+    return new Labels(names, new boolean[names.length]);
+  }
+
+  /**
+   * @param names The label names to fold once the family is full.
+   * @return These labels, with the given ones foldable too.
+   * @throws IllegalArgumentException if a name is not one of the labels
+   */
+  public @NotNull Labels fold(@NotNull String... names) {
+    final boolean[] folded = this.folded.clone();
+    for (String name : names) {
+      final int index = Arrays.asList(this.names).indexOf(name);
+      if (index < 0) {
+        throw new IllegalArgumentException("Unknown label " + name);
+      }
+      folded[index] = true;
+    }
+    return new Labels(this.names, folded);
+  }
+
+  @NotNull String[] names() {
+    return names;
+  }
+
+  /**
+   * @return Which labels are folded, by position; all of them if none was declared foldable.
+   */
+  @NotNull boolean[] folded() {
+    for (boolean label : folded) {
+      if (label) {
+        return folded.clone();
+      }
+    }
+    final boolean[] all = new boolean[folded.length];
+    Arrays.fill(all, true);
+    return all;
+  }
+}
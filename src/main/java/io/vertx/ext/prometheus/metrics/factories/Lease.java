@@ -0,0 +1,118 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A child of a {@link Family}, leased by all owners updating it, which the family evicts once no owner used it for
+ * its {@link SeriesTtl}. Owners update the child only after a successful {@link #touch()} or while pinned: an evicted
+ * lease can be neither, and its owners take a new one from the family, with a new child. Momentary updates, like
+ * counter increments, only touch the lease, which writes its stamp once per epoch and no shared counter. Gauges of
+ * things in progress, like active requests, stay pinned once per thing until it ends, so they are never evicted while
+ * not back to zero.
+ *
+ * @param <C> The child type of the collector.
+ */
+public final class Lease<C> {
+  private static final int EVICTED = Integer.MIN_VALUE / 2;
+
+  private final @NotNull Family<C> family;
+  private final @NotNull String[] values;
+  private final @NotNull C child;
+  private final @NotNull AtomicInteger pins = new AtomicInteger();
+  private volatile int touched;
+
+  Lease(@NotNull Family<C> family, @NotNull String[] values, @NotNull C child) {
+    this.family = family;
+    this.values = values;
+    this.child = child;
+    touched = family.epoch();
+  }
+
+  /**
+   * Stamps the lease for a momentary update of the child, unless it was evicted. The stamp is only written once per
+   * epoch of the family, and before checking for eviction: a sweep evicting the lease meanwhile checks the stamp again
+   * once evicted, so either the owner sees the eviction, or the sweep sees the stamp and keeps the lease.
+   *
+   * @return Whether the child may be updated, otherwise a new lease must be taken from the family.
+   */
+  public boolean touch() {
+    if (family.isEvictable()) {
+      stamp();
+    }
+    return !isEvicted();
+  }
+
+  /**
+   * Pins the child until {@link #unpin()}, unless it was evicted.
+   *
+   * @return Whether the child is pinned, otherwise a new lease must be taken from the family.
+   */
+  public boolean pin() {
+    if (!family.isEvictable()) {
+      return !isEvicted();
+    }
+    if (pins.incrementAndGet() <= 0) {
+      pins.decrementAndGet();
+      return false;
+    }
+    stamp();
+    return true;
+  }
+
+  /**
+   * @return The child, only to be updated while pinned.
+   */
+  public @NotNull C child() {
+    return child;
+  }
+
+  public void unpin() {
+    if (family.isEvictable()) {
+      pins.decrementAndGet();
+    }
+  }
+
+  @NotNull String[] values() {
+    return values;
+  }
+
+  /**
+   * @return Whether the child was evicted, so owners may drop the lease.
+   */
+  public boolean isEvicted() {
+    return pins.get() < 0;
+  }
+
+  /**
+   * @return Whether the lease was idle during the epoch and not pinned, and is evicted now.
+   */
+  boolean evictIdle(int epoch) {
+    if (touched == epoch || !pins.compareAndSet(0, EVICTED)) {
+      return false;
+    }
+    if (touched == epoch) {
+      // touched while being evicted, by an owner which may not have seen the eviction
+      pins.addAndGet(-EVICTED);
+      return false;
+    }
+    return true;
+  }
+
+  private void stamp() {
+    final int now = family.epoch();
+    if (touched != now) {
+      touched = now;
+    }
+  }
+
+  /**
+   * Evicts the lease even though pinned, e.g. once its series is removed from the family.
+   */
+  void evict() {
+    if (!isEvicted()) {
+      pins.addAndGet(EVICTED);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.SimpleCollector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Maximum number of series per metric family.
+ * Label combinations beyond the limit are folded into a series with their foldable {@link Labels} set to
+ * {@value Family#OVERFLOW}. Every label combination folded this way is counted once by {@code vertx_series_overflows},
+ * so it shows how many label combinations were dropped, however much traffic they had.
+ */
+public final class SeriesLimit {
+  private static final @NotNull SeriesLimit UNLIMITED = new SeriesLimit(0, null);
+  private static final @NotNull String DROPPED = "vertx_series_overflows";
+
+  private final int max;
+  private final @Nullable Counter dropped;
+
+  private SeriesLimit(int max, @Nullable Counter dropped) {
+    this.max = max;
+    this.dropped = dropped;
+  }
+
+  /**
+   * @return A limit which never folds series.
+   */
+  public static @NotNull SeriesLimit unlimited() {
+    return UNLIMITED;
+  }
+
+  /**
+   * Registers the overflows counter with the registry, unless the limit is disabled.
+   *
+   * @param registry The registry to register the counter with.
+   * @param max The maximum number of series per family, {@code 0} for no limit.
+   * @return A series limit shared by the families of the registry.
+   */
+  public static @NotNull SeriesLimit create(@NotNull CollectorRegistry registry, int max) {
+    if (max <= 0) {
+      return UNLIMITED;
+    }
+    return new SeriesLimit(max, SharedCollectors.acquire(registry, DROPPED, Counter.build(DROPPED, "Label combinations folded into the overflow series")
+        .labelNames("family")
+        .create()));
+  }
+
+  /**
+   * Creates the family of a collector, see {@link SharedCollectors#acquire(CollectorRegistry, String, SimpleCollector.Builder, Labels, SeriesLimit, SeriesTtl)}.
+   *
+   * @param name The name of the family.
+   * @param collector The collector of the family.
+   * @param labels The labels of the collector, and which of them are folded.
+   * @param ttl The time to live of idle leased children of the family.
+   * @return The family, limited to the maximum number of series.
+   */
+  @NotNull <C> Family<C> apply(@NotNull String name, @NotNull SimpleCollector<C> collector, @NotNull Labels labels, @NotNull SeriesTtl ttl) {
+    return new Family<>(collector, max, dropped == null ? null : dropped.labels(name), ttl.millis(), labels.folded());
+  }
+
+  /**
+   * Releases the overflows counter, unregistering it from the registry unless another limit uses it.
+   */
+  public void close(@NotNull CollectorRegistry registry) {
+    if (dropped != null) {
+      SharedCollectors.release(registry, DROPPED);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Time to live of idle series whose label values are taken from traffic.
+ * Owners of such series update them through a {@link Lease}, stamped with the epoch of its family when touched or
+ * pinned, which is a volatile read. Families are swept four times per time to live; once their time to live passed, a
+ * sweep evicts the leases no owner used since the previous one and starts a new epoch, so a series is evicted between
+ * one and two and a half times to live after its last update. Owners sweep their caches of evicted leases right after.
+ * Sweeps walk every lease, so they run on a worker thread of their own rather than on the event loop of the timer.
+ */
+public final class SeriesTtl {
+  private static final @NotNull SeriesTtl DISABLED = new SeriesTtl(0);
+  private static final int SWEEPS_PER_TTL = 4;
+  private static final @NotNull String EXECUTOR = "vertx-prometheus-sweeper";
+
+  private final long ttl;
+  private final @NotNull Set<Family<?>> families = new CopyOnWriteArraySet<>();
+  private final @NotNull Set<Runnable> sweepers = new CopyOnWriteArraySet<>();
+  private long timer = -1;
+  private @Nullable WorkerExecutor executor;
+  // only accessed on the context of the timer, which also handles the results of the sweeps
+  private boolean sweeping;
+
+  private SeriesTtl(long ttl) {
+    this.ttl = ttl;
+  }
+
+  /**
+   * @return A time to live which never evicts series.
+   */
+  public static @NotNull SeriesTtl disabled() {
+    return DISABLED;
+  }
+
+  /**
+   * @param ttl The time to live in milliseconds, {@code 0} to never evict series.
+   * @return A time to live, swept once started.
+   */
+  public static @NotNull SeriesTtl create(long ttl) {
+    return ttl > 0 ? new SeriesTtl(ttl) : DISABLED;
+  }
+
+  /**
+   * Starts sweeping periodically on a Vert.x timer, unless disabled. A tick is skipped while the previous sweep runs.
+   */
+  public synchronized void start(@NotNull Vertx vertx) {
+    if (isEnabled() && timer < 0) {
+      final WorkerExecutor executor = vertx.createSharedWorkerExecutor(EXECUTOR, 1);
+      this.executor = executor;
+      timer = vertx.setPeriodic(Math.max(1, ttl / SWEEPS_PER_TTL), id -> {
+        if (!sweeping) {
+          sweeping = true;
+          executor.<Void>executeBlocking(future -> {
+            sweep();
+            future.complete();
+          }, false, result -> sweeping = false);
+        }
+      });
+    }
+  }
+
+  /**
+   * Stops sweeping, if started.
+   */
+  public synchronized void stop(@NotNull Vertx vertx) {
+    if (timer >= 0) {
+      vertx.cancelTimer(timer);
+      timer = -1;
+    }
+    if (executor != null) {
+      executor.close();
+      executor = null;
+    }
+  }
+
+  /**
+   * @return Whether idle series are evicted.
+   */
+  public boolean isEnabled() {
+    return this != DISABLED;
+  }
+
+  /**
+   * @param sweeper Drops the evicted leases from the caches of an owner, until removed.
+   */
+  public void add(@NotNull Runnable sweeper) {
+    if (isEnabled()) {
+      sweepers.add(sweeper);
+    }
+  }
+
+  public void remove(@NotNull Runnable sweeper) {
+    sweepers.remove(sweeper);
+  }
+
+  long millis() {
+    return ttl;
+  }
+
+  void add(@NotNull Family<?> family) {
+    if (isEnabled()) {
+      families.add(family);
+    }
+  }
+
+  void sweep() {
+    families.forEach(Family::sweep);
+    sweepers.forEach(Runnable::run);
+  }
+}
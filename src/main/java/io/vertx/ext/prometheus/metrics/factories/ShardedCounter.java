@@ -0,0 +1,69 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.SimpleCollector;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counter with per event loop shards, merged on collect. Exposed exactly like a {@link Counter}.
+ */
+final class ShardedCounter extends SimpleCollector<Counter.Child> implements Collector.Describable {
+
+  private ShardedCounter(@NotNull Builder builder) {
+    super(builder);
+  }
+
+  static @NotNull Builder build(@NotNull String name, @NotNull String help) {
+    return new Builder().name(name).help(help);
+  }
+
+  @Override
+  protected @NotNull Counter.Child newChild() {
+    return new Child();
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> collect() {
+    final List<MetricFamilySamples.Sample> samples = new ArrayList<>(children.size());
+    for (Map.Entry<List<String>, Counter.Child> child : children.entrySet()) {
+      samples.add(new MetricFamilySamples.Sample(fullname, labelNames, child.getKey(), child.getValue().get()));
+    }
+    return familySamplesList(Type.COUNTER, samples);
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> describe() {
+    return Collections.singletonList(new CounterMetricFamily(fullname, help, labelNames));
+  }
+
+  static final class Builder extends SimpleCollector.Builder<Builder, ShardedCounter> {
+    @Override
+    public @NotNull ShardedCounter create() {
+      return new ShardedCounter(this);
+    }
+  }
+
+  static final class Child extends Counter.Child {
+    private final @NotNull Shards shards = new Shards();
+
+    @Override
+    public void inc(double amount) {
+      if (amount < 0) {
+        throw new IllegalArgumentException("Amount to increment must be non-negative.");
+      }
+      shards.add(amount);
+    }
+
+    @Override
+    public double get() {
+      return shards.sum();
+    }
+  }
+}
@@ -0,0 +1,111 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.SimpleCollector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauge with per event loop shards, merged on collect. Exposed exactly like a {@link Gauge}.
+ */
+final class ShardedGauge extends SimpleCollector<Gauge.Child> implements Collector.Describable {
+
+  private ShardedGauge(@NotNull Builder builder) {
+    super(builder);
+  }
+
+  static @NotNull Builder build(@NotNull String name, @NotNull String help) {
+    return new Builder().name(name).help(help);
+  }
+
+  @Override
+  protected @NotNull Gauge.Child newChild() {
+    return new Child();
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> collect() {
+    final List<MetricFamilySamples.Sample> samples = new ArrayList<>(children.size());
+    for (Map.Entry<List<String>, Gauge.Child> child : children.entrySet()) {
+      samples.add(new MetricFamilySamples.Sample(fullname, labelNames, child.getKey(), child.getValue().get()));
+    }
+    return familySamplesList(Type.GAUGE, samples);
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> describe() {
+    return Collections.singletonList(new GaugeMetricFamily(fullname, help, labelNames));
+  }
+
+  static final class Builder extends SimpleCollector.Builder<Builder, ShardedGauge> {
+    @Override
+    public @NotNull ShardedGauge create() {
+      return new ShardedGauge(this);
+    }
+  }
+
+  /**
+   * Shards can only be added to, so a child which is set once is unsharded from then on: it keeps its value in a
+   * single atomic cell, which is set, incremented and decremented atomically, like a plain {@link Gauge}. Increments
+   * racing with the first set may go to the shards still, as if made before the set, which overwrites them.
+   * Gauges which are set, like maximum sizes, are seldom updated otherwise.
+   */
+  private static final class Child extends Gauge.Child {
+    private final @NotNull Shards shards = new Shards();
+    private volatile @Nullable AtomicLong unsharded;
+
+    @Override
+    public void inc(double amount) {
+      add(amount);
+    }
+
+    @Override
+    public void dec(double amount) {
+      add(-amount);
+    }
+
+    @Override
+    public void set(double value) {
+      final AtomicLong unsharded = this.unsharded;
+      if (unsharded != null) {
+        unsharded.set(Double.doubleToRawLongBits(value));
+      } else {
+        unshard(value);
+      }
+    }
+
+    @Override
+    public double get() {
+      final AtomicLong unsharded = this.unsharded;
+      return unsharded != null ? Double.longBitsToDouble(unsharded.get()) : shards.sum();
+    }
+
+    private void add(double amount) {
+      final AtomicLong unsharded = this.unsharded;
+      if (unsharded == null) {
+        shards.add(amount);
+        return;
+      }
+      long current = unsharded.get();
+      while (!unsharded.compareAndSet(current, Double.doubleToRawLongBits(Double.longBitsToDouble(current) + amount))) {
+        current = unsharded.get();
+      }
+    }
+
+    private synchronized void unshard(double value) {
+      if (unsharded == null) {
+        unsharded = new AtomicLong(Double.doubleToRawLongBits(value));
+      } else {
+        unsharded.set(Double.doubleToRawLongBits(value));
+      }
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.vertx.core.Context;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Value of a sharded child: every event loop thread adds to its own cell, other threads share a {@link DoubleAdder}.
+ * Cells have a single writer, so updates are plain ordered stores; the value is the sum of all cells.
+ * Shard indices are returned once their thread's locals are removed or the thread has died, and the next event loop
+ * taking one over keeps adding to the same cells.
+ */
+final class Shards {
+  private static final int MAX_SHARDS = 256;
+  private static final int NO_SHARD = -1;
+  @SuppressWarnings("unchecked")
+  private static final @NotNull WeakReference<Thread>[] OWNERS = new WeakReference[MAX_SHARDS];
+  private static final @NotNull FastThreadLocal<Integer> SHARD = new FastThreadLocal<Integer>() {
+    @Override
+    protected @NotNull Integer initialValue() {
+      return Context.isOnEventLoopThread() ? claim(Thread.currentThread()) : NO_SHARD;
+    }
+
+    @Override
+    protected void onRemoval(@NotNull Integer shard) {
+      release(shard);
+    }
+  };
+
+  private final @NotNull DoubleAdder shared = new DoubleAdder();
+  private volatile @NotNull Cell[] cells = new Cell[0];
+
+  void add(double amount) {
+    final int shard = SHARD.get();
+    if (shard == NO_SHARD) {
+      shared.add(amount);
+    } else {
+      cell(shard).add(amount);
+    }
+  }
+
+  double sum() {
+    double sum = shared.sum();
+    for (Cell cell : cells) {
+      if (cell != null) {
+        sum += cell.get();
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * @return the lowest shard index without a live owner, or {@link #NO_SHARD} if all are taken
+   */
+  private static @NotNull Integer claim(@NotNull Thread thread) {
+    synchronized (OWNERS) {
+      for (int shard = 0; shard < MAX_SHARDS; shard++) {
+        final WeakReference<Thread> owner = OWNERS[shard];
+        final Thread current = owner == null ? null : owner.get();
+        if (current == null || !current.isAlive()) {
+          OWNERS[shard] = new WeakReference<>(thread);
+          return shard;
+        }
+      }
+      return NO_SHARD;
+    }
+  }
+
+  private static void release(int shard) {
+    if (shard != NO_SHARD) {
+      synchronized (OWNERS) {
+        OWNERS[shard] = null;
+      }
+    }
+  }
+
+  private @NotNull Cell cell(int shard) {
+    final Cell[] cells = this.cells;
+    final Cell cell = shard < cells.length ? cells[shard] : null;
+    return cell != null ? cell : newCell(shard);
+  }
+
+  private synchronized @NotNull Cell newCell(int shard) {
+    Cell[] cells = this.cells;
+    if (shard >= cells.length) {
+      cells = Arrays.copyOf(cells, shard + 1);
+    } else if (cells[shard] != null) {
+      return cells[shard];
+    } else {
+      cells = cells.clone();
+    }
+    final Cell cell = new Cell();
+    cells[shard] = cell;
+    this.cells = cells;
+    return cell;
+  }
+
+  private static final class Cell {
+    private static final @NotNull AtomicLongFieldUpdater<Cell> VALUE = AtomicLongFieldUpdater.newUpdater(Cell.class, "value");
+
+    private volatile long value = Double.doubleToRawLongBits(0);
+
+    void add(double amount) {
+      VALUE.lazySet(this, Double.doubleToRawLongBits(get() + amount));
+    }
+
+    double get() {
+      return Double.longBitsToDouble(value);
+    }
+  }
+}
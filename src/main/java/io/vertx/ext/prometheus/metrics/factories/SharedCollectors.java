@@ -0,0 +1,96 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.SimpleCollector;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collectors shared by name within a {@link CollectorRegistry}, e.g. by the metrics of several Vert.x instances using the
+ * same registry. The first to acquire a name registers its collector and everyone else gets that one; the collector is
+ * unregistered once it has been released as many times as it was acquired, so closing one user never removes a family
+ * from the others, and acquiring the name again afterwards registers a new collector.
+ * The {@link Family} of a collector is shared and released along with it, so its series limit, overflows, claims and
+ * leases account for all users of the collector. It takes the limit and time to live of the first user, and is swept by
+ * the time to live of every user.
+ */
+public final class SharedCollectors {
+  private static final @NotNull Map<CollectorRegistry, Map<String, Shared>> REGISTRIES = new WeakHashMap<>();
+
+  private SharedCollectors() {
+  }
+
+  /**
+   * @param registry The registry to register the collector with.
+   * @param name The name of the collector.
+   * @param collector The collector to register, unless the registry already has a shared collector with the name.
+   * @return The shared collector with the name.
+   * @throws IllegalArgumentException if the name is registered with the registry, but not shared
+   */
+  @SuppressWarnings("unchecked")
+  public static synchronized <T extends Collector> @NotNull T acquire(@NotNull CollectorRegistry registry, @NotNull String name, @NotNull T collector) {
+    return (T) shared(registry, name, collector).collector;
+  }
+
+  /**
+   * @param registry The registry to register the collector with.
+   * @param name The name of the collector.
+   * @param builder Builds the collector to register, unless the registry already has a shared collector with the name.
+   * @param labels The labels of the collector, and which of them the family folds.
+   * @param limit The limit of the family, unless the shared collector already has one.
+   * @param ttl The time to live of the family, unless the shared collector already has one, and a sweeper of the family.
+   * @return The family of the shared collector with the name.
+   * @throws IllegalArgumentException if the name is registered with the registry, but not shared
+   */
+  @SuppressWarnings("unchecked")
+  public static synchronized <C> @NotNull Family<C> acquire(@NotNull CollectorRegistry registry, @NotNull String name,
+                                                            @NotNull SimpleCollector.Builder<?, ? extends SimpleCollector<C>> builder,
+                                                            @NotNull Labels labels, @NotNull SeriesLimit limit, @NotNull SeriesTtl ttl) {
+    final Shared shared = shared(registry, name, builder.labelNames(labels.names()).create());
+    if (shared.family == null) {
+      shared.family = limit.apply(name, (SimpleCollector<C>) shared.collector, labels, ttl);
+    }
+    ttl.add(shared.family);
+    return (Family<C>) shared.family;
+  }
+
+  /**
+   * @param registry The registry the collector was acquired from.
+   * @param name The name of the collector.
+   */
+  public static synchronized void release(@NotNull CollectorRegistry registry, @NotNull String name) {
+    final Map<String, Shared> collectors = REGISTRIES.get(registry);
+    final Shared shared = collectors == null ? null : collectors.get(name);
+    if (shared != null && --shared.references == 0) {
+      collectors.remove(name);
+      registry.unregister(shared.collector);
+    }
+  }
+
+  private static @NotNull Shared shared(@NotNull CollectorRegistry registry, @NotNull String name, @NotNull Collector collector) {
+    final Map<String, Shared> collectors = REGISTRIES.computeIfAbsent(registry, r -> new HashMap<>());
+    Shared shared = collectors.get(name);
+    if (shared == null) {
+      registry.register(collector);
+      shared = new Shared(collector);
+      collectors.put(name, shared);
+    }
+    shared.references++;
+    return shared;
+  }
+
+  private static final class Shared {
+    private final @NotNull Collector collector;
+    private @Nullable Family<?> family;
+    private int references;
+
+    private Shared(@NotNull Collector collector) {
+      this.collector = collector;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package io.vertx.ext.prometheus.metrics.factories;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.SimpleCollector;
+import io.vertx.ext.prometheus.Buckets;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in seconds, observed in nanoseconds and bucketed by {@link Buckets#index(long)}.
+ * Exposed exactly like a {@link io.prometheus.client.Histogram}.
+ */
+public final class TimeHistogram extends SimpleCollector<TimeHistogram.Child> implements Collector.Describable {
+  private final @NotNull Buckets buckets;
+  private final @NotNull String[] bounds;
+
+  private TimeHistogram(@NotNull Builder builder) {
+    super(builder);
+    buckets = builder.buckets;
+    final double[] bounds = buckets.bounds();
+    this.bounds = new String[bounds.length + 1];
+    for (int i = 0; i < bounds.length; i++) {
+      this.bounds[i] = doubleToGoString(bounds[i]);
+    }
+    this.bounds[bounds.length] = doubleToGoString(Double.POSITIVE_INFINITY);
+  }
+
+  public static @NotNull Builder build(@NotNull String name, @NotNull String help) {
+    return new Builder().name(name).help(help);
+  }
+
+  @Override
+  protected @NotNull Child newChild() {
+    return new Child(buckets, bounds.length);
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> collect() {
+    final List<MetricFamilySamples.Sample> samples = new ArrayList<>();
+    final List<String> labelNamesWithLe = new ArrayList<>(labelNames);
+    labelNamesWithLe.add("le");
+    for (Map.Entry<List<String>, Child> child : children.entrySet()) {
+      final Child value = child.getValue();
+      long cumulative = 0;
+      for (int i = 0; i < bounds.length; i++) {
+        cumulative += value.counts[i].sum();
+        final List<String> labelValuesWithLe = new ArrayList<>(child.getKey());
+        labelValuesWithLe.add(bounds[i]);
+        samples.add(new MetricFamilySamples.Sample(fullname + "_bucket", labelNamesWithLe, labelValuesWithLe, cumulative));
+      }
+      samples.add(new MetricFamilySamples.Sample(fullname + "_count", labelNames, child.getKey(), cumulative));
+      samples.add(new MetricFamilySamples.Sample(fullname + "_sum", labelNames, child.getKey(), value.sum.sum()));
+    }
+    return familySamplesList(Type.HISTOGRAM, samples);
+  }
+
+  @Override
+  public @NotNull List<MetricFamilySamples> describe() {
+    return Collections.singletonList(new MetricFamilySamples(fullname, Type.HISTOGRAM, help, Collections.emptyList()));
+  }
+
+  public static final class Builder extends SimpleCollector.Builder<Builder, TimeHistogram> {
+    private @NotNull Buckets buckets = Buckets.defaults();
+
+    /**
+     * @param buckets The bucket layout.
+     * @return a reference to this, so the API can be used fluently
+     */
+    public @NotNull Builder buckets(@NotNull Buckets buckets) {
+      this.buckets = buckets;
+      return this;
+    }
+
+    @Override
+    public @NotNull TimeHistogram create() {
+      return new TimeHistogram(this);
+    }
+  }
+
+  public static final class Child {
+    private final @NotNull Buckets buckets;
+    private final @NotNull LongAdder[] counts;
+    private final @NotNull DoubleAdder sum = new DoubleAdder();
+
+    private Child(@NotNull Buckets buckets, int size) {
+      this.buckets = buckets;
+      counts = new LongAdder[size];
+      for (int i = 0; i < size; i++) {
+        counts[i] = new LongAdder();
+      }
+    }
+
+    /**
+     * @param nanos The duration in nanoseconds.
+     */
+    public void observe(long nanos) {
+      counts[buckets.index(nanos)].increment();
+      sum.add(nanos / NANOSECONDS_PER_SECOND);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.spi.cluster.ClusterManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshots of the metrics of every node of a Vert.x cluster, exchanged over the event bus.
+ * Every node answers on its own address with the families of its registry, and a scrape of {@code /metrics/cluster}
+ * asks all nodes in parallel and merges their families, labelled by {@value #NODE_LABEL}.
+ * A node which doesn't answer within the timeout is left out of the scrape and reported by {@value #UP}.
+ * A {@value #NODE_LABEL} label of a node's own samples is kept as {@value #EXPORTED_NODE_LABEL}, as Prometheus does on
+ * target label conflicts.
+ * Snapshots are collected, encoded, decoded and merged on worker threads, so a large registry doesn't block the event
+ * loops of the answering and the scraping node.
+ */
+public final class ClusterSnapshots {
+  public static final @NotNull String ADDRESS = "vertx.prometheus.snapshot";
+
+  private static final @NotNull String NODE_LABEL = "node";
+  private static final @NotNull String EXPORTED_NODE_LABEL = "exported_node";
+  private static final @NotNull String UP = "vertx_cluster_node_up";
+  private static final @NotNull String LOCAL_NODE = "local";
+
+  private final @NotNull Vertx vertx;
+  private final long timeout;
+
+  private ClusterSnapshots(@NotNull Vertx vertx, long timeout) {
+    this.vertx = vertx;
+    this.timeout = timeout;
+  }
+
+  /**
+   * @param timeout time to wait for the snapshot of each node, in milliseconds
+   * @return families of all nodes, labelled by node
+   */
+  static @NotNull MetricsSource source(@NotNull Vertx vertx, long timeout) {
+    return new ClusterSnapshots(vertx, timeout)::collect;
+  }
+
+  /**
+   * Answer snapshot requests for this node.
+   *
+   * @param vertx    The Vert.x instance of the node.
+   * @param registry The registry to answer with.
+   * @return consumer of the snapshot requests
+   */
+  public static @NotNull MessageConsumer<JsonArray> respond(@NotNull Vertx vertx, @NotNull CollectorRegistry registry) {
+    return vertx.eventBus().consumer(address(nodeId(vertx)), (Message<JsonArray> request) -> {
+      final List<String> names = request.body().getList();
+      vertx.<Buffer>executeBlocking(future -> future.complete(SnapshotCodec.encode(Collections.list(names.isEmpty()
+          ? registry.metricFamilySamples()
+          : registry.filteredMetricFamilySamples(new HashSet<>(names))))), false, snapshot -> {
+        if (snapshot.succeeded()) {
+          request.reply(snapshot.result());
+        } else {
+          request.fail(500, String.valueOf(snapshot.cause()));
+        }
+      });
+    });
+  }
+
+  /**
+   * @param node The id of the node, as given by the cluster manager.
+   * @return address the node answers snapshot requests on
+   */
+  public static @NotNull String address(@NotNull String node) {
+    return ADDRESS + '.' + node;
+  }
+
+  private void collect(@NotNull Set<String> names, @NotNull Handler<AsyncResult<Enumeration<MetricFamilySamples>>> handler) {
+    final List<String> nodes = nodes(vertx);
+    if (nodes.isEmpty()) {
+      handler.handle(Future.succeededFuture(Collections.emptyEnumeration()));
+      return;
+    }
+    final List<Buffer> snapshots = new ArrayList<>(Collections.nCopies(nodes.size(), null));
+    final int[] pending = {nodes.size()};
+    final DeliveryOptions delivery = new DeliveryOptions().setSendTimeout(timeout);
+    final JsonArray request = new JsonArray(new ArrayList<>(names));
+    for (int i = 0; i < nodes.size(); i++) {
+      final int node = i;
+      vertx.eventBus().<Buffer>send(address(nodes.get(i)), request, delivery, reply -> {
+        if (reply.succeeded()) {
+          snapshots.set(node, reply.result().body());
+        }
+        if (--pending[0] == 0) {
+          vertx.<Enumeration<MetricFamilySamples>>executeBlocking(
+              future -> future.complete(Collections.enumeration(merge(nodes, snapshots, names))), false, handler);
+        }
+      });
+    }
+  }
+
+  private static @NotNull List<MetricFamilySamples> merge(@NotNull List<String> nodes, @NotNull List<Buffer> snapshots,
+                                                          @NotNull Set<String> names) {
+    final Map<String, List<MetricFamilySamples.Sample>> samples = new LinkedHashMap<>();
+    final Map<String, MetricFamilySamples> families = new LinkedHashMap<>();
+    final List<MetricFamilySamples.Sample> up = new ArrayList<>();
+    for (int i = 0; i < nodes.size(); i++) {
+      final String node = nodes.get(i);
+      final Buffer snapshot = snapshots.get(i);
+      up.add(new MetricFamilySamples.Sample(UP, Collections.singletonList(NODE_LABEL), Collections.singletonList(node), snapshot == null ? 0 : 1));
+      if (snapshot == null) {
+        continue;
+      }
+      for (MetricFamilySamples family : SnapshotCodec.decode(snapshot)) {
+        families.putIfAbsent(family.name, family);
+        final List<MetricFamilySamples.Sample> merged = samples.computeIfAbsent(family.name, name -> new ArrayList<>());
+        for (MetricFamilySamples.Sample sample : family.samples) {
+          merged.add(new MetricFamilySamples.Sample(sample.name, with(exported(sample.labelNames), NODE_LABEL), with(sample.labelValues, node), sample.value));
+        }
+      }
+    }
+
+    final List<MetricFamilySamples> result = new ArrayList<>(families.size() + 1);
+    families.forEach((name, family) -> result.add(new MetricFamilySamples(name, family.type, family.help, samples.get(name))));
+    if (names.isEmpty() || names.contains(UP)) {
+      result.add(new MetricFamilySamples(UP, Collector.Type.GAUGE, "Whether the node answered the cluster scrape", up));
+    }
+    return result;
+  }
+
+  private static @NotNull List<String> with(@NotNull List<String> list, @NotNull String last) {
+    final List<String> result = new ArrayList<>(list.size() + 1);
+    result.addAll(list);
+    result.add(last);
+    return result;
+  }
+
+  private static @NotNull List<String> exported(@NotNull List<String> labelNames) {
+    final int index = labelNames.indexOf(NODE_LABEL);
+    if (index < 0) {
+      return labelNames;
+    }
+    final List<String> result = new ArrayList<>(labelNames);
+    result.set(index, EXPORTED_NODE_LABEL);
+    return result;
+  }
+
+  private static @NotNull List<String> nodes(@NotNull Vertx vertx) {
+    final ClusterManager cluster = ((VertxInternal) vertx).getClusterManager();
+    return cluster == null ? Collections.singletonList(LOCAL_NODE) : cluster.getNodes();
+  }
+
+  private static @NotNull String nodeId(@NotNull Vertx vertx) {
+    final ClusterManager cluster = ((VertxInternal) vertx).getClusterManager();
+    return cluster == null ? LOCAL_NODE : cluster.getNodeID();
+  }
+}
@@ -0,0 +1,69 @@
+package io.vertx.ext.prometheus.server;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+enum ContentEncoding {
+  Identity(null),
+  Gzip("gzip"),
+  Deflate("deflate");
+
+  private final @Nullable String token;
+
+  private ContentEncoding(@Nullable String token) {
+    this.token = token;
+  }
+
+  /**
+   * @return value of the {@code Content-Encoding} header, {@code null} if the content is not encoded
+   */
+  @Nullable String token() {
+    return token;
+  }
+
+  @NotNull EncodingStream wrap(@NotNull WriteStream<Buffer> target) {
+    return this == Identity ? new EncodingStream(target) : new DeflaterStream(target, this == Gzip);
+  }
+
+  /**
+   * Choose the encoding with the highest quality from an {@code Accept-Encoding} header.
+   *
+   * @param acceptEncoding value of the {@code Accept-Encoding} header
+   * @return negotiated encoding, {@link #Identity} if neither gzip nor deflate is accepted
+   */
+  static @NotNull ContentEncoding negotiate(@Nullable String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return Identity;
+    }
+    ContentEncoding best = Identity;
+    double bestQuality = 0;
+    for (String coding : acceptEncoding.split(",")) {
+      final String[] parts = coding.split(";");
+      final String token = parts[0].trim();
+      double quality = 1;
+      for (int i = 1; i < parts.length; i++) {
+        final String[] parameter = parts[i].split("=", 2);
+        if (parameter.length > 1 && parameter[0].trim().equals("q")) {
+          quality = parseQuality(parameter[1].trim());
+        }
+      }
+      for (ContentEncoding encoding : values()) {
+        if (token.equalsIgnoreCase(encoding.token) && quality > bestQuality) {
+          best = encoding;
+          bestQuality = quality;
+        }
+      }
+    }
+    return best;
+  }
+
+  private static double parseQuality(@NotNull String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
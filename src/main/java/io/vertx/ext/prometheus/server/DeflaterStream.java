@@ -0,0 +1,133 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip or deflate encoding of the chunks written to the target.
+ * Deflaters are reset and kept per event loop, so the native zlib state is not reallocated for every scrape.
+ */
+final class DeflaterStream extends EncodingStream {
+  private static final int MAX_POOLED = 4;
+  private static final @NotNull byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+  private static final @NotNull FastThreadLocal<ArrayDeque<Deflater>> GZIP_DEFLATERS = new Deflaters();
+  private static final @NotNull FastThreadLocal<ArrayDeque<Deflater>> ZLIB_DEFLATERS = new Deflaters();
+
+  private final boolean gzip;
+  private final @Nullable CRC32 crc;
+  private @Nullable Deflater deflater;
+  private @NotNull ByteBuf out = Unpooled.buffer(ExpositionStream.CHUNK_SIZE);
+
+  DeflaterStream(@NotNull WriteStream<Buffer> target, boolean gzip) {
+    super(target);
+    this.gzip = gzip;
+    this.crc = gzip ? new CRC32() : null;
+    final Deflater pooled = pool().poll();
+    this.deflater = pooled != null ? pooled : new Deflater(Deflater.BEST_SPEED, gzip);
+    if (gzip) {
+      out.writeBytes(GZIP_HEADER);
+    }
+  }
+
+  @Override
+  public @NotNull DeflaterStream write(@NotNull Buffer data) {
+    final Deflater deflater = deflater();
+    final ByteBuf in = data.getByteBuf();
+    final byte[] bytes;
+    final int offset;
+    if (in.hasArray()) {
+      bytes = in.array();
+      offset = in.arrayOffset() + in.readerIndex();
+    } else {
+      bytes = data.getBytes();
+      offset = 0;
+    }
+    final int length = in.readableBytes();
+    if (crc != null) {
+      crc.update(bytes, offset, length);
+    }
+    deflater.setInput(bytes, offset, length);
+    while (!deflater.needsInput()) {
+      deflate(deflater);
+    }
+    flush();
+    return this;
+  }
+
+  @Override
+  void finish() {
+    final Deflater deflater = deflater();
+    deflater.finish();
+    while (!deflater.finished()) {
+      deflate(deflater);
+    }
+    if (crc != null) {
+      out.ensureWritable(8);
+      out.writeIntLE((int) crc.getValue());
+      out.writeIntLE((int) deflater.getBytesRead());
+    }
+    flush();
+    release();
+  }
+
+  @Override
+  void discard() {
+    release();
+  }
+
+  private void deflate(@NotNull Deflater deflater) {
+    if (!out.isWritable()) {
+      flush();
+    }
+    final int written = deflater.deflate(out.array(), out.arrayOffset() + out.writerIndex(), out.writableBytes());
+    out.writerIndex(out.writerIndex() + written);
+  }
+
+  private void flush() {
+    if (out.isReadable()) {
+      target.write(Buffer.buffer(out));
+      out = Unpooled.buffer(ExpositionStream.CHUNK_SIZE);
+    }
+  }
+
+  private @NotNull Deflater deflater() {
+    if (deflater == null) {
+      throw new IllegalStateException("Stream is already finished");
+    }
+    return deflater;
+  }
+
+  private void release() {
+    if (deflater != null) {
+      deflater.reset();
+      final ArrayDeque<Deflater> pool = pool();
+      if (pool.size() < MAX_POOLED) {
+        pool.push(deflater);
+      } else {
+        deflater.end();
+      }
+      deflater = null;
+    }
+  }
+
+  private @NotNull ArrayDeque<Deflater> pool() {
+    return (gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS).get();
+  }
+
+  private static final class Deflaters extends FastThreadLocal<ArrayDeque<Deflater>> {
+    @Override
+    protected @NotNull ArrayDeque<Deflater> initialValue() {
+      return new ArrayDeque<>(MAX_POOLED);
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package io.vertx.ext.prometheus.server;
+
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Applies a content encoding to the chunks written to the target. This one writes them as they are.
+ * Neither {@link #finish()} nor {@link #discard()} end the target.
+ */
+class EncodingStream implements WriteStream<Buffer> {
+  protected final @NotNull WriteStream<Buffer> target;
+
+  EncodingStream(@NotNull WriteStream<Buffer> target) {
+    this.target = target;
+  }
+
+  @Override
+  public @NotNull EncodingStream exceptionHandler(@Nullable Handler<Throwable> handler) {
+    target.exceptionHandler(handler);
+    return this;
+  }
+
+  @Override
+  public @NotNull EncodingStream write(@NotNull Buffer data) {
+    target.write(data);
+    return this;
+  }
+
+  @Override
+  public void end() {
+    finish();
+    target.end();
+  }
+
+  @Override
+  public @NotNull EncodingStream setWriteQueueMaxSize(int maxSize) {
+    target.setWriteQueueMaxSize(maxSize);
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return target.writeQueueFull();
+  }
+
+  @Override
+  public @NotNull EncodingStream drainHandler(@Nullable Handler<Void> handler) {
+    target.drainHandler(handler);
+    return this;
+  }
+
+  /**
+   * Writes whatever the encoding still holds back.
+   */
+  void finish() {
+    // nothing to do
+  }
+
+  /**
+   * Releases the resources of the encoding when the content is abandoned.
+   */
+  void discard() {
+    // nothing to do
+  }
+}
@@ -0,0 +1,18 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.ByteBuf;
+import io.prometheus.client.Collector;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Writes metric families straight into a byte buffer, without building an intermediate string.
+ * Encoders are shared by all scrapes and must be thread-safe.
+ */
+interface ExpositionEncoder {
+
+  /**
+   * @param family metric family to encode
+   * @param out    buffer the encoded family is appended to
+   */
+  void encode(@NotNull Collector.MetricFamilySamples family, @NotNull ByteBuf out);
+}
@@ -0,0 +1,102 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.exporter.common.TextFormat;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public enum ExpositionFormat {
+
+  /**
+   * Prometheus text format, version 0.0.4.
+   */
+  Text(TextFormat.CONTENT_TYPE_004, new TextEncoder()),
+
+  /**
+   * Prometheus protocol buffer format: length-delimited {@code io.prometheus.client.MetricFamily} messages.
+   */
+  Protobuf("application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited", new ProtobufEncoder());
+
+  private static final @NotNull String PROTOBUF_MEDIA_TYPE = "application/vnd.google.protobuf";
+  private static final @NotNull String TEXT_MEDIA_TYPE = "text/plain";
+
+  private final @NotNull String contentType;
+  private final @NotNull ExpositionEncoder encoder;
+
+  private ExpositionFormat(@NotNull String contentType, @NotNull ExpositionEncoder encoder) {
+    this.contentType = contentType;
+    this.encoder = encoder;
+  }
+
+  /**
+   * Content type of the scrape response.
+   *
+   * @return value of the {@code Content-Type} header
+   */
+  public @NotNull String getContentType() {
+    return contentType;
+  }
+
+  @NotNull ExpositionEncoder encoder() {
+    return encoder;
+  }
+
+  /**
+   * Choose the format from an {@code Accept} header, preferring the media range with the highest quality.
+   *
+   * @param accept   value of the {@code Accept} header
+   * @param fallback format to use if the header is missing or accepts none of the formats explicitly
+   * @return negotiated format
+   */
+  public static @NotNull ExpositionFormat negotiate(@Nullable String accept, @NotNull ExpositionFormat fallback) {
+    if (accept == null) {
+      return fallback;
+    }
+    ExpositionFormat best = fallback;
+    double bestQuality = 0;
+    for (String range : accept.split(",")) {
+      final String[] parts = range.split(";");
+      final String mediaType = parts[0].trim();
+      double quality = 1;
+      String proto = null;
+      String encoding = null;
+      for (int i = 1; i < parts.length; i++) {
+        final String[] parameter = parts[i].split("=", 2);
+        final String value = parameter.length > 1 ? parameter[1].trim() : "";
+        switch (parameter[0].trim()) {
+          case "q":
+            quality = parseQuality(value);
+            break;
+          case "proto":
+            proto = value;
+            break;
+          case "encoding":
+            encoding = value;
+            break;
+        }
+      }
+
+      final ExpositionFormat format;
+      if (mediaType.equalsIgnoreCase(PROTOBUF_MEDIA_TYPE)
+          && "io.prometheus.client.MetricFamily".equals(proto) && "delimited".equals(encoding)) {
+        format = Protobuf;
+      } else if (mediaType.equalsIgnoreCase(TEXT_MEDIA_TYPE)) {
+        format = Text;
+      } else {
+        continue;
+      }
+      if (quality > bestQuality) {
+        best = format;
+        bestQuality = quality;
+      }
+    }
+    return best;
+  }
+
+  private static double parseQuality(@NotNull String value) {
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+}
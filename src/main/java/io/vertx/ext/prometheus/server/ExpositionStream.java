@@ -0,0 +1,68 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Enumeration;
+
+/**
+ * Encodes metric families chunk by chunk on the event loop.
+ * Collectors are only asked for their samples when the previous chunk has been handed over to the target,
+ * the loop yields between chunks and backs off while the target's write queue is full.
+ */
+final class ExpositionStream {
+  static final int CHUNK_SIZE = 64 * 1024;
+
+  private final @NotNull Context context;
+  private final @NotNull Enumeration<MetricFamilySamples> families;
+  private final @NotNull ExpositionEncoder encoder;
+  private final @NotNull WriteStream<Buffer> target;
+  private final @NotNull Handler<AsyncResult<Void>> completion;
+
+  ExpositionStream(@NotNull Context context, @NotNull Enumeration<MetricFamilySamples> families, @NotNull ExpositionEncoder encoder,
+                   @NotNull WriteStream<Buffer> target, @NotNull Handler<AsyncResult<Void>> completion) {
+    this.context = context;
+    this.families = families;
+    this.encoder = encoder;
+    this.target = target;
+    this.completion = completion;
+  }
+
+  void start() {
+    context.runOnContext(v -> pump());
+  }
+
+  private void pump() {
+    try {
+      final ByteBuf chunk = Unpooled.buffer(CHUNK_SIZE);
+      while (chunk.readableBytes() < CHUNK_SIZE && families.hasMoreElements()) {
+        encoder.encode(families.nextElement(), chunk);
+      }
+      if (chunk.isReadable()) {
+        target.write(Buffer.buffer(chunk));
+      }
+    } catch (RuntimeException e) {
+      completion.handle(Future.failedFuture(e));
+      return;
+    }
+
+    if (!families.hasMoreElements()) {
+      completion.handle(Future.succeededFuture());
+    } else if (target.writeQueueFull()) {
+      target.drainHandler(v -> {
+        target.drainHandler(null);
+        pump();
+      });
+    } else {
+      context.runOnContext(v -> pump());
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.streams.WriteStream;
+import io.vertx.ext.web.RoutingContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+final class MetricsHandler implements Handler<RoutingContext> {
+  private final @NotNull MetricsSource source;
+  private final @NotNull ExpositionFormat format;
+  private final boolean compressionSupported;
+  private final @Nullable ScrapeCache cache;
+
+  MetricsHandler(@NotNull MetricsSource source, @NotNull ExpositionFormat format, boolean compressionSupported, long scrapeCacheTtl) {
+    this.source = source;
+    this.format = format;
+    this.compressionSupported = compressionSupported;
+    this.cache = scrapeCacheTtl > 0 ? new ScrapeCache(scrapeCacheTtl) : null;
+  }
+
+  @Override
+  public void handle(@NotNull RoutingContext context) {
+    final HttpServerRequest request = context.request();
+    final ExpositionFormat format = ExpositionFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT), this.format);
+    final ContentEncoding encoding = compressionSupported
+        ? ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+        : ContentEncoding.Identity;
+    final HttpServerResponse response = context.response()
+        .setStatusCode(HttpResponseStatus.OK.code())
+        .putHeader(HttpHeaders.CONTENT_TYPE, format.getContentType());
+    if (compressionSupported) {
+      response.putHeader(HttpHeaderNames.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+    if (encoding.token() != null) {
+      response.putHeader(HttpHeaders.CONTENT_ENCODING, encoding.token());
+    }
+    final Context vertxContext = context.vertx().getOrCreateContext();
+    final ScrapeCache.Key key = new ScrapeCache.Key(format, encoding, names(request));
+
+    if (cache == null) {
+      response.setChunked(true);
+      stream(vertxContext, key, response, failure -> {
+        if (failure == null) {
+          response.end();
+        } else if (!response.headWritten()) {
+          context.fail(failure);
+        } else {
+          response.close();
+        }
+      });
+    } else {
+      cache.get(key, k -> render(vertxContext, k)).whenComplete((bytes, failure) -> vertxContext.runOnContext(v -> {
+        if (failure == null) {
+          response.end(bytes);
+        } else {
+          context.fail(failure);
+        }
+      }));
+    }
+  }
+
+  private @NotNull CompletableFuture<Buffer> render(@NotNull Context context, @NotNull ScrapeCache.Key key) {
+    final CompletableFuture<Buffer> rendered = new CompletableFuture<>();
+    final ScrapeBuffer buffer = new ScrapeBuffer();
+    stream(context, key, buffer, failure -> {
+      if (failure == null) {
+        rendered.complete(buffer.toBuffer());
+      } else {
+        rendered.completeExceptionally(failure);
+      }
+    });
+    return rendered;
+  }
+
+  private void stream(@NotNull Context context, @NotNull ScrapeCache.Key key, @NotNull WriteStream<Buffer> target,
+                      @NotNull Handler<Throwable> completion) {
+    source.collect(key.names(), families -> {
+      if (families.failed()) {
+        completion.handle(families.cause());
+        return;
+      }
+      final EncodingStream encoded = key.encoding().wrap(target);
+      new ExpositionStream(context, families.result(), key.format().encoder(), encoded, result -> {
+        if (result.succeeded()) {
+          encoded.finish();
+          completion.handle(null);
+        } else {
+          encoded.discard();
+          completion.handle(result.cause());
+        }
+      }).start();
+    });
+  }
+
+  private static @NotNull Set<String> names(@NotNull HttpServerRequest request) {
+    final List<String> names = request.params().getAll("name[]");
+    return names.isEmpty() ? Collections.emptySet() : new HashSet<>(names);
+  }
+}
@@ -0,0 +1,193 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Closeable;
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.net.SocketAddress;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes a {@link CollectorRegistry} to a Pushgateway, for jobs which may not live long enough to be scraped.
+ * Every push replaces the metrics of the job with a snapshot of the whole registry, rendered chunk by chunk on the
+ * event loop. A failed push is retried with an exponential backoff instead of waiting for the next interval.
+ * <p>
+ * Closing the pusher pushes a last snapshot, so register it as a close hook of Vert.x.
+ */
+public final class MetricsPusher implements Closeable {
+  private static final long RETRY_DELAY = 500;
+  private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toMillis(1);
+
+  private final @NotNull Vertx vertx;
+  private final @NotNull Context context;
+  private final @NotNull HttpClient client;
+  private final @NotNull CollectorRegistry registry;
+  private final @NotNull SocketAddress address;
+  private @NotNull ExpositionFormat format = ExpositionFormat.Text;
+  private @NotNull String job = "vertx";
+  private long interval = TimeUnit.SECONDS.toMillis(10);
+
+  // confined to the context
+  private long timer = -1;
+  private long retryDelay = RETRY_DELAY;
+  private boolean pushing;
+  private boolean closed;
+  private @Nullable Handler<AsyncResult<Void>> closeHandler;
+
+  private MetricsPusher(@NotNull Vertx vertx, @NotNull CollectorRegistry registry, @NotNull SocketAddress address) {
+    this.vertx = vertx;
+    this.context = vertx.getOrCreateContext();
+    this.client = vertx.createHttpClient();
+    this.registry = registry;
+    this.address = address;
+  }
+
+  /**
+   * @param vertx    The Vert.x instance to push from.
+   * @param registry The registry to push.
+   * @param address  The address of the Pushgateway.
+   * @return pusher, not started yet
+   */
+  public static @NotNull MetricsPusher create(@NotNull Vertx vertx, @NotNull CollectorRegistry registry, @NotNull SocketAddress address) {
+    return new MetricsPusher(vertx, registry, address);
+  }
+
+  /**
+   * Set the exposition format of the pushes. Default is {@link ExpositionFormat#Text}.
+   *
+   * @param format the exposition format
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsPusher setFormat(@NotNull ExpositionFormat format) {
+    this.format = format;
+    return this;
+  }
+
+  /**
+   * Set the job the metrics are grouped by on the Pushgateway. Default is {@code vertx}.
+   *
+   * @param job the job name
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsPusher setJob(@NotNull String job) {
+    this.job = job;
+    return this;
+  }
+
+  /**
+   * Set the time between two successful pushes, which is also the timeout of a push. Default is 10 seconds.
+   *
+   * @param interval interval in milliseconds
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsPusher setInterval(long interval) {
+    this.interval = interval;
+    return this;
+  }
+
+  /**
+   * Schedule the first push one interval from now.
+   *
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsPusher start() {
+    context.runOnContext(v -> schedule(interval));
+    return this;
+  }
+
+  /**
+   * Stop pushing periodically and push a last snapshot, once the push in flight if any has completed.
+   * The completion handler always succeeds, a failure of the last push is not retried.
+   */
+  @Override
+  public void close(@NotNull Handler<AsyncResult<Void>> completion) {
+    context.runOnContext(v -> {
+      if (closed) {
+        completion.handle(Future.succeededFuture());
+        return;
+      }
+      closed = true;
+      if (timer != -1) {
+        vertx.cancelTimer(timer);
+      }
+      if (pushing) {
+        closeHandler = completion;
+      } else {
+        flush(completion);
+      }
+    });
+  }
+
+  private void schedule(long delay) {
+    if (!closed) {
+      timer = vertx.setTimer(delay, id -> {
+        timer = -1;
+        push(this::pushed);
+      });
+    }
+  }
+
+  private void pushed(boolean succeeded) {
+    if (closeHandler != null) {
+      flush(closeHandler);
+    } else if (succeeded) {
+      retryDelay = RETRY_DELAY;
+      schedule(interval);
+    } else {
+      schedule(retryDelay);
+      retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+    }
+  }
+
+  private void flush(@NotNull Handler<AsyncResult<Void>> completion) {
+    push(succeeded -> {
+      client.close();
+      completion.handle(Future.succeededFuture());
+    });
+  }
+
+  private void push(@NotNull Handler<Boolean> completion) {
+    pushing = true;
+    final Future<Boolean> result = Future.future();
+    result.setHandler(pushed -> {
+      pushing = false;
+      completion.handle(pushed.succeeded() && pushed.result());
+    });
+    final ScrapeBuffer buffer = new ScrapeBuffer();
+    new ExpositionStream(context, registry.metricFamilySamples(), format.encoder(), buffer, rendered -> {
+      if (rendered.succeeded()) {
+        send(buffer.toBuffer(), result);
+      } else {
+        result.fail(rendered.cause());
+      }
+    }).start();
+  }
+
+  private void send(@NotNull Buffer body, @NotNull Future<Boolean> result) {
+    client.put(address.port(), address.host(), "/metrics/job/" + encode(job), response -> result.tryComplete(response.statusCode() / 100 == 2))
+        .exceptionHandler(result::tryFail)
+        .setTimeout(interval)
+        .putHeader(HttpHeaders.CONTENT_TYPE, format.getContentType())
+        .end(body);
+  }
+
+  private static @NotNull String encode(@NotNull String segment) {
+    try {
+      return URLEncoder.encode(segment, StandardCharsets.UTF_8.name()).replace("+", "%20");
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.Router;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Vert.x HTTP server exposing a {@link CollectorRegistry} on {@code /metrics}.
+ * Scrapes are served on the event loop, the response is streamed in chunks while collectors are walked.
+ */
+public final class MetricsServer implements BiFunction<CollectorRegistry, ExpositionFormat, Function<SocketAddress, HttpServer>> {
+  private final @NotNull Vertx vertx;
+  private boolean compressionSupported;
+  private long scrapeCacheTtl;
+  private long clusterScrapeTimeout;
+
+  private MetricsServer(@NotNull Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  public static @NotNull MetricsServer create(@NotNull Vertx vertx) {
+    return new MetricsServer(vertx);
+  }
+
+  /**
+   * Compress responses with gzip or deflate if the scraper accepts it. Disabled by default.
+   *
+   * @param supported true to negotiate the content encoding from the {@code Accept-Encoding} header
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsServer setCompressionSupported(boolean supported) {
+    this.compressionSupported = supported;
+    return this;
+  }
+
+  /**
+   * Reuse rendered responses for the given time. Scrapes arriving while a response is rendered wait for it instead
+   * of walking the registry again. Disabled by default.
+   *
+   * @param ttl time to live of a rendered response in milliseconds, {@code 0} to disable caching
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsServer setScrapeCacheTtl(long ttl) {
+    this.scrapeCacheTtl = ttl;
+    return this;
+  }
+
+  /**
+   * Also serve the metrics of all nodes of the cluster on {@code /metrics/cluster}, from the snapshots the nodes answer
+   * with after {@link ClusterSnapshots#respond}. Disabled by default.
+   *
+   * @param timeout time to wait for the snapshot of each node in milliseconds, {@code 0} to disable the cluster scrape
+   * @return a reference to this, so the API can be used fluently
+   */
+  public @NotNull MetricsServer setClusterScrapeTimeout(long timeout) {
+    this.clusterScrapeTimeout = timeout;
+    return this;
+  }
+
+  @Override
+  public @NotNull Function<SocketAddress, HttpServer> apply(@NotNull CollectorRegistry registry, @NotNull ExpositionFormat format) {
+    final Router router = Router.router(vertx);
+    router.route("/metrics").handler(new MetricsHandler(MetricsSource.of(registry), format, compressionSupported, scrapeCacheTtl));
+    if (clusterScrapeTimeout > 0) {
+      router.route("/metrics/cluster")
+          .handler(new MetricsHandler(ClusterSnapshots.source(vertx, clusterScrapeTimeout), format, compressionSupported, scrapeCacheTtl));
+    }
+    return address -> vertx.createHttpServer()
+        .requestHandler(router::accept)
+        .listen(address.port(), address.host());
+  }
+}
@@ -0,0 +1,29 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Enumeration;
+import java.util.Set;
+
+/**
+ * Metric families served by a {@link MetricsHandler}, collected asynchronously.
+ */
+interface MetricsSource {
+
+  /**
+   * @param names   names of the families to collect, all families if empty
+   * @param handler handler of the families, called on the calling context
+   */
+  void collect(@NotNull Set<String> names, @NotNull Handler<AsyncResult<Enumeration<MetricFamilySamples>>> handler);
+
+  static @NotNull MetricsSource of(@NotNull CollectorRegistry registry) {
+    return (names, handler) -> handler.handle(Future.succeededFuture(names.isEmpty()
+        ? registry.metricFamilySamples()
+        : registry.filteredMetricFamilySamples(names)));
+  }
+}
@@ -0,0 +1,306 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.prometheus.client.Collector.MetricFamilySamples.Sample;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Writes length-delimited {@code io.prometheus.client.MetricFamily} messages straight from the samples.
+ * No message objects are built: nested messages get a length placeholder that is fixed up once the message is written.
+ * Samples of summaries and histograms are grouped into metrics by their labels, the quantile and le labels aside.
+ */
+final class ProtobufEncoder implements ExpositionEncoder {
+  private static final int VARINT = 0;
+  private static final int FIXED64 = 1;
+  private static final int LENGTH_DELIMITED = 2;
+
+  // MetricFamily
+  private static final int FAMILY_NAME = 1;
+  private static final int FAMILY_HELP = 2;
+  private static final int FAMILY_TYPE = 3;
+  private static final int FAMILY_METRIC = 4;
+
+  // Metric
+  private static final int METRIC_LABEL = 1;
+  private static final int METRIC_GAUGE = 2;
+  private static final int METRIC_COUNTER = 3;
+  private static final int METRIC_SUMMARY = 4;
+  private static final int METRIC_UNTYPED = 5;
+  private static final int METRIC_HISTOGRAM = 7;
+
+  // LabelPair, Gauge, Counter, Untyped, Summary, Histogram, Quantile, Bucket
+  private static final int LABEL_NAME = 1;
+  private static final int LABEL_VALUE = 2;
+  private static final int VALUE = 1;
+  private static final int SAMPLE_COUNT = 1;
+  private static final int SAMPLE_SUM = 2;
+  private static final int QUANTILE = 3;
+  private static final int QUANTILE_QUANTILE = 1;
+  private static final int QUANTILE_VALUE = 2;
+  private static final int BUCKET = 3;
+  private static final int BUCKET_CUMULATIVE_COUNT = 1;
+  private static final int BUCKET_UPPER_BOUND = 2;
+
+  private static final int FAMILY_LENGTH_RESERVE = 3;
+
+  @Override
+  public void encode(@NotNull MetricFamilySamples family, @NotNull ByteBuf out) {
+    final int familyStart = beginMessage(out, FAMILY_LENGTH_RESERVE);
+    writeString(out, FAMILY_NAME, family.name);
+    writeString(out, FAMILY_HELP, family.help);
+    writeTag(out, FAMILY_TYPE, VARINT);
+    writeVarint(out, type(family.type));
+
+    final List<Sample> samples = family.samples;
+    switch (family.type) {
+      case SUMMARY:
+        for (int i = 0; i < samples.size(); ) {
+          i = writeSummary(out, family.name, samples, i);
+        }
+        break;
+      case HISTOGRAM:
+        for (int i = 0; i < samples.size(); ) {
+          i = writeHistogram(out, family.name, samples, i);
+        }
+        break;
+      default:
+        for (Sample sample : samples) {
+          writeSimple(out, family.type, sample);
+        }
+    }
+    endMessage(out, familyStart, FAMILY_LENGTH_RESERVE);
+  }
+
+  private static void writeSimple(@NotNull ByteBuf out, @NotNull Collector.Type type, @NotNull Sample sample) {
+    writeTag(out, FAMILY_METRIC, LENGTH_DELIMITED);
+    final int metric = beginMessage(out, 1);
+    writeLabels(out, sample, null);
+    writeTag(out, type == Collector.Type.COUNTER ? METRIC_COUNTER : type == Collector.Type.GAUGE ? METRIC_GAUGE : METRIC_UNTYPED, LENGTH_DELIMITED);
+    writeVarint(out, 9);
+    writeDouble(out, VALUE, sample.value);
+    endMessage(out, metric, 1);
+  }
+
+  /**
+   * @return index of the first sample of the next metric
+   */
+  private static int writeSummary(@NotNull ByteBuf out, @NotNull String name, @NotNull List<Sample> samples, int from) {
+    final Sample first = samples.get(from);
+    writeTag(out, FAMILY_METRIC, LENGTH_DELIMITED);
+    final int metric = beginMessage(out, 1);
+    writeLabels(out, first, "quantile");
+    writeTag(out, METRIC_SUMMARY, LENGTH_DELIMITED);
+    final int summary = beginMessage(out, 1);
+    int i = from;
+    for (; i < samples.size() && sameMetric(first, samples.get(i), "quantile"); i++) {
+      final Sample sample = samples.get(i);
+      if (sample.name.equals(name)) {
+        writeTag(out, QUANTILE, LENGTH_DELIMITED);
+        writeVarint(out, 18);
+        writeDouble(out, QUANTILE_QUANTILE, parseDouble(labelValue(sample, "quantile")));
+        writeDouble(out, QUANTILE_VALUE, sample.value);
+      } else {
+        writeCountOrSum(out, name, sample);
+      }
+    }
+    endMessage(out, summary, 1);
+    endMessage(out, metric, 1);
+    return i;
+  }
+
+  /**
+   * @return index of the first sample of the next metric
+   */
+  private static int writeHistogram(@NotNull ByteBuf out, @NotNull String name, @NotNull List<Sample> samples, int from) {
+    final Sample first = samples.get(from);
+    writeTag(out, FAMILY_METRIC, LENGTH_DELIMITED);
+    final int metric = beginMessage(out, 1);
+    writeLabels(out, first, "le");
+    writeTag(out, METRIC_HISTOGRAM, LENGTH_DELIMITED);
+    final int histogram = beginMessage(out, 1);
+    int i = from;
+    for (; i < samples.size() && sameMetric(first, samples.get(i), "le"); i++) {
+      final Sample sample = samples.get(i);
+      if (sample.name.length() == name.length() + 7 && sample.name.endsWith("_bucket")) {
+        final double upperBound = parseDouble(labelValue(sample, "le"));
+        // the +Inf bucket is implied by the sample count
+        if (upperBound != Double.POSITIVE_INFINITY) {
+          writeTag(out, BUCKET, LENGTH_DELIMITED);
+          final int bucket = beginMessage(out, 1);
+          writeTag(out, BUCKET_CUMULATIVE_COUNT, VARINT);
+          writeVarint(out, (long) sample.value);
+          writeDouble(out, BUCKET_UPPER_BOUND, upperBound);
+          endMessage(out, bucket, 1);
+        }
+      } else {
+        writeCountOrSum(out, name, sample);
+      }
+    }
+    endMessage(out, histogram, 1);
+    endMessage(out, metric, 1);
+    return i;
+  }
+
+  private static void writeCountOrSum(@NotNull ByteBuf out, @NotNull String name, @NotNull Sample sample) {
+    if (sample.name.length() == name.length() + 6 && sample.name.endsWith("_count")) {
+      writeTag(out, SAMPLE_COUNT, VARINT);
+      writeVarint(out, (long) sample.value);
+    } else if (sample.name.length() == name.length() + 4 && sample.name.endsWith("_sum")) {
+      writeDouble(out, SAMPLE_SUM, sample.value);
+    }
+  }
+
+  private static void writeLabels(@NotNull ByteBuf out, @NotNull Sample sample, @Nullable String excluded) {
+    for (int i = 0; i < sample.labelNames.size(); i++) {
+      final String name = sample.labelNames.get(i);
+      if (!name.equals(excluded)) {
+        writeTag(out, METRIC_LABEL, LENGTH_DELIMITED);
+        final int label = beginMessage(out, 1);
+        writeString(out, LABEL_NAME, name);
+        writeString(out, LABEL_VALUE, sample.labelValues.get(i));
+        endMessage(out, label, 1);
+      }
+    }
+  }
+
+  /**
+   * Whether two samples belong to the same metric, i.e. have the same labels apart from the excluded one.
+   */
+  private static boolean sameMetric(@NotNull Sample first, @NotNull Sample sample, @NotNull String excluded) {
+    if (first == sample) {
+      return true;
+    }
+    int i = 0;
+    int j = 0;
+    while (true) {
+      if (i < first.labelNames.size() && first.labelNames.get(i).equals(excluded)) {
+        i++;
+      }
+      if (j < sample.labelNames.size() && sample.labelNames.get(j).equals(excluded)) {
+        j++;
+      }
+      final boolean firstDone = i >= first.labelNames.size();
+      final boolean sampleDone = j >= sample.labelNames.size();
+      if (firstDone || sampleDone) {
+        return firstDone && sampleDone;
+      }
+      if (!first.labelNames.get(i).equals(sample.labelNames.get(j)) || !first.labelValues.get(i).equals(sample.labelValues.get(j))) {
+        return false;
+      }
+      i++;
+      j++;
+    }
+  }
+
+  private static @NotNull String labelValue(@NotNull Sample sample, @NotNull String name) {
+    final int index = sample.labelNames.indexOf(name);
+    return index < 0 ? "NaN" : sample.labelValues.get(index);
+  }
+
+  private static double parseDouble(@NotNull String value) {
+    switch (value) {
+      case "+Inf":
+        return Double.POSITIVE_INFINITY;
+      case "-Inf":
+        return Double.NEGATIVE_INFINITY;
+      default:
+        return Double.parseDouble(value);
+    }
+  }
+
+  private static int type(@NotNull Collector.Type type) {
+    switch (type) {
+      case COUNTER:
+        return 0;
+      case GAUGE:
+        return 1;
+      case SUMMARY:
+        return 2;
+      case HISTOGRAM:
+        return 4;
+      default:
+        return 3;
+    }
+  }
+
+  private static void writeString(@NotNull ByteBuf out, int field, @NotNull String value) {
+    writeTag(out, field, LENGTH_DELIMITED);
+    final int reserved = varintSize(ByteBufUtil.utf8MaxBytes(value));
+    final int start = beginMessage(out, reserved);
+    ByteBufUtil.writeUtf8(out, value);
+    endMessage(out, start, reserved);
+  }
+
+  private static void writeDouble(@NotNull ByteBuf out, int field, double value) {
+    writeTag(out, field, FIXED64);
+    out.writeLongLE(Double.doubleToRawLongBits(value));
+  }
+
+  private static void writeTag(@NotNull ByteBuf out, int field, int wireType) {
+    out.writeByte(field << 3 | wireType);
+  }
+
+  private static void writeVarint(@NotNull ByteBuf out, long value) {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static int varintSize(long value) {
+    int size = 1;
+    while ((value & ~0x7FL) != 0) {
+      size++;
+      value >>>= 7;
+    }
+    return size;
+  }
+
+  /**
+   * Reserves room for the length of a message.
+   *
+   * @return index of the reserved room
+   */
+  private static int beginMessage(@NotNull ByteBuf out, int reserved) {
+    final int start = out.writerIndex();
+    out.writeZero(reserved);
+    return start;
+  }
+
+  /**
+   * Writes the length of the message begun at {@code start}, moving the message if its length needs more or less
+   * room than reserved.
+   */
+  private static void endMessage(@NotNull ByteBuf out, int start, int reserved) {
+    final int length = out.writerIndex() - start - reserved;
+    final int size = varintSize(length);
+    if (size != reserved) {
+      if (size > reserved) {
+        out.ensureWritable(size - reserved);
+      }
+      move(out, start + reserved, start + size, length);
+      out.writerIndex(start + size + length);
+    }
+    final int end = out.writerIndex();
+    out.writerIndex(start);
+    writeVarint(out, length);
+    out.writerIndex(end);
+  }
+
+  private static void move(@NotNull ByteBuf out, int from, int to, int length) {
+    if (out.hasArray()) {
+      System.arraycopy(out.array(), out.arrayOffset() + from, out.array(), out.arrayOffset() + to, length);
+    } else {
+      final byte[] bytes = new byte[length];
+      out.getBytes(from, bytes);
+      out.setBytes(to, bytes);
+    }
+  }
+}
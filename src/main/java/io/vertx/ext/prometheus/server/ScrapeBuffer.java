@@ -0,0 +1,51 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.vertx.core.Handler;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.streams.WriteStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Collects the chunks of a render into a single buffer, without copying them.
+ */
+final class ScrapeBuffer implements WriteStream<Buffer> {
+  private final @NotNull CompositeByteBuf chunks = Unpooled.compositeBuffer(Integer.MAX_VALUE);
+
+  @Override
+  public @NotNull ScrapeBuffer exceptionHandler(@Nullable Handler<Throwable> handler) {
+    return this;
+  }
+
+  @Override
+  public @NotNull ScrapeBuffer write(@NotNull Buffer data) {
+    chunks.addComponent(true, data.getByteBuf());
+    return this;
+  }
+
+  @Override
+  public void end() {
+    // nothing to do
+  }
+
+  @Override
+  public @NotNull ScrapeBuffer setWriteQueueMaxSize(int maxSize) {
+    return this;
+  }
+
+  @Override
+  public boolean writeQueueFull() {
+    return false;
+  }
+
+  @Override
+  public @NotNull ScrapeBuffer drainHandler(@Nullable Handler<Void> handler) {
+    return this;
+  }
+
+  public @NotNull Buffer toBuffer() {
+    return Buffer.buffer(chunks);
+  }
+}
@@ -0,0 +1,115 @@
+package io.vertx.ext.prometheus.server;
+
+import io.vertx.core.buffer.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Rendered scrape responses by format, content encoding and name filter.
+ * A response is reused until it is older than the TTL; scrapes arriving while a render is in progress wait for it
+ * and share its bytes, so the registry is walked at most once per key and TTL however many scrapers there are.
+ */
+final class ScrapeCache {
+  private final long ttl;
+  private final @NotNull ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * @param ttl time to live of a rendered response, in milliseconds
+   */
+  ScrapeCache(long ttl) {
+    this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+  }
+
+  /**
+   * @param key    format, content encoding and name filter of the scrape
+   * @param render renders the response for the key, called only if there is neither a fresh nor an in-flight one
+   * @return rendered response
+   */
+  @NotNull CompletableFuture<Buffer> get(@NotNull Key key, @NotNull Function<Key, CompletableFuture<Buffer>> render) {
+    final long now = System.nanoTime();
+    final Entry entry = entries.compute(key, (k, cached) -> cached != null && cached.isValid(now) ? cached : new Entry());
+    if (entry.claim()) {
+      entries.values().removeIf(cached -> !cached.isValid(now));
+      render.apply(key).whenComplete((bytes, failure) -> {
+        if (failure == null) {
+          entry.complete(bytes);
+        } else {
+          entries.remove(key, entry);
+          entry.result.completeExceptionally(failure);
+        }
+      });
+    }
+    return entry.result;
+  }
+
+  private final class Entry {
+    private final @NotNull CompletableFuture<Buffer> result = new CompletableFuture<>();
+    private final @NotNull AtomicBoolean rendering = new AtomicBoolean();
+    private volatile long renderedAt;
+
+    boolean claim() {
+      return rendering.compareAndSet(false, true);
+    }
+
+    void complete(@NotNull Buffer bytes) {
+      renderedAt = System.nanoTime();
+      result.complete(bytes);
+    }
+
+    boolean isValid(long now) {
+      if (!result.isDone()) {
+        return true;
+      }
+      return !result.isCompletedExceptionally() && now - renderedAt < ttl;
+    }
+  }
+
+  static final class Key {
+    private final @NotNull ExpositionFormat format;
+    private final @NotNull ContentEncoding encoding;
+    private final @NotNull Set<String> names;
+
+    Key(@NotNull ExpositionFormat format, @NotNull ContentEncoding encoding, @NotNull Set<String> names) {
+      this.format = format;
+      this.encoding = encoding;
+      this.names = names;
+    }
+
+    @NotNull ExpositionFormat format() {
+      return format;
+    }
+
+    @NotNull ContentEncoding encoding() {
+      return encoding;
+    }
+
+    @NotNull Set<String> names() {
+      return names;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Key other = (Key) o;
+      return format == other.format && encoding == other.encoding && names.equals(other.names);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(format, encoding, names);
+    }
+  }
+}
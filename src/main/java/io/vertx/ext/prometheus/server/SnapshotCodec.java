@@ -0,0 +1,130 @@
+package io.vertx.ext.prometheus.server;
+
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import io.vertx.core.buffer.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of the metric families of a node, as sent over the event bus.
+ * Every string is written once per snapshot and referenced by index afterwards, so the metric, label names and
+ * repeated label values of a family cost a varint per sample.
+ */
+final class SnapshotCodec {
+  private static final @NotNull Collector.Type[] TYPES = Collector.Type.values();
+
+  private SnapshotCodec() {
+  }
+
+  static @NotNull Buffer encode(@NotNull List<MetricFamilySamples> families) {
+    final Buffer buffer = Buffer.buffer();
+    final Map<String, Integer> strings = new HashMap<>();
+    writeVarint(buffer, families.size());
+    for (MetricFamilySamples family : families) {
+      writeString(buffer, strings, family.name);
+      buffer.appendByte((byte) family.type.ordinal());
+      writeString(buffer, strings, family.help);
+      writeVarint(buffer, family.samples.size());
+      for (MetricFamilySamples.Sample sample : family.samples) {
+        writeString(buffer, strings, sample.name);
+        writeVarint(buffer, sample.labelNames.size());
+        for (int i = 0; i < sample.labelNames.size(); i++) {
+          writeString(buffer, strings, sample.labelNames.get(i));
+          writeString(buffer, strings, sample.labelValues.get(i));
+        }
+        buffer.appendDouble(sample.value);
+      }
+    }
+    return buffer;
+  }
+
+  static @NotNull List<MetricFamilySamples> decode(@NotNull Buffer buffer) {
+    final Reader reader = new Reader(buffer, 0);
+    final int familyCount = reader.varint();
+    final List<MetricFamilySamples> families = new ArrayList<>(familyCount);
+    for (int f = 0; f < familyCount; f++) {
+      final String name = reader.string();
+      final Collector.Type type = TYPES[reader.buffer.getByte(reader.pos++)];
+      final String help = reader.string();
+      final int sampleCount = reader.varint();
+      final List<MetricFamilySamples.Sample> samples = new ArrayList<>(sampleCount);
+      for (int s = 0; s < sampleCount; s++) {
+        final String sampleName = reader.string();
+        final int labelCount = reader.varint();
+        final String[] labelNames = new String[labelCount];
+        final String[] labelValues = new String[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+          labelNames[i] = reader.string();
+          labelValues[i] = reader.string();
+        }
+        final double value = reader.buffer.getDouble(reader.pos);
+        reader.pos += 8;
+        samples.add(new MetricFamilySamples.Sample(sampleName, Arrays.asList(labelNames), Arrays.asList(labelValues), value));
+      }
+      families.add(new MetricFamilySamples(name, type, help, samples));
+    }
+    return families;
+  }
+
+  private static void writeString(@NotNull Buffer buffer, @NotNull Map<String, Integer> strings, @NotNull String s) {
+    final Integer index = strings.get(s);
+    if (index != null) {
+      writeVarint(buffer, index + 1);
+      return;
+    }
+    strings.put(s, strings.size());
+    final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    writeVarint(buffer, 0);
+    writeVarint(buffer, bytes.length);
+    buffer.appendBytes(bytes);
+  }
+
+  private static void writeVarint(@NotNull Buffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.appendByte((byte) value);
+  }
+
+  private static final class Reader {
+    private final @NotNull Buffer buffer;
+    private final @NotNull List<String> strings = new ArrayList<>();
+    private int pos;
+
+    private Reader(@NotNull Buffer buffer, int pos) {
+      this.buffer = buffer;
+      this.pos = pos;
+    }
+
+    int varint() {
+      int value = 0;
+      for (int shift = 0; ; shift += 7) {
+        final byte b = buffer.getByte(pos++);
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+
+    @NotNull String string() {
+      final int index = varint();
+      if (index > 0) {
+        return strings.get(index - 1);
+      }
+      final int length = varint();
+      final String s = new String(buffer.getBytes(pos, pos + length), StandardCharsets.UTF_8);
+      pos += length;
+      strings.add(s);
+      return s;
+    }
+  }
+}
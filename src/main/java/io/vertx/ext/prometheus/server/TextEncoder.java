@@ -0,0 +1,173 @@
+package io.vertx.ext.prometheus.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Collector.MetricFamilySamples;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Byte-level equivalent of {@link io.prometheus.client.exporter.common.TextFormat#write004}.
+ * The {@code # HELP}/{@code # TYPE} lines and the label name prefixes of a family never change, so they are encoded
+ * on the first scrape of the family and copied as bytes afterwards; only label values are escaped on every scrape.
+ */
+final class TextEncoder implements ExpositionEncoder {
+  private static final @NotNull byte[] LABELS_END = ascii("\",}");
+  private static final @NotNull byte[] FRACTION_ZERO = ascii(".0");
+
+  private static final long MAX_PLAIN_LONG = 10_000_000L;
+
+  private final @NotNull ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+  @Override
+  public void encode(@NotNull MetricFamilySamples family, @NotNull ByteBuf out) {
+    final Family encoded = family(family);
+    out.writeBytes(encoded.header);
+    for (MetricFamilySamples.Sample sample : family.samples) {
+      ByteBufUtil.writeAscii(out, sample.name);
+      if (!sample.labelNames.isEmpty()) {
+        final byte[][] prefixes = encoded.labelPrefixes(sample.labelNames);
+        for (int i = 0; i < prefixes.length; i++) {
+          out.writeBytes(prefixes[i]);
+          writeEscaped(out, sample.labelValues.get(i), true);
+        }
+        out.writeBytes(LABELS_END);
+      }
+      out.writeByte(' ');
+      writeDouble(out, sample.value);
+      out.writeByte('\n');
+    }
+  }
+
+  private @NotNull Family family(@NotNull MetricFamilySamples samples) {
+    final Family cached = families.get(samples.name);
+    if (cached != null && cached.describes(samples)) {
+      return cached;
+    }
+    final Family family = new Family(samples);
+    families.put(samples.name, family);
+    return family;
+  }
+
+  private static void writeEscaped(@NotNull ByteBuf out, @NotNull String s, boolean quotes) {
+    int plain = 0;
+    for (int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if (c == '\\' || c == '\n' || (quotes && c == '"')) {
+        if (i > plain) {
+          ByteBufUtil.writeUtf8(out, s.subSequence(plain, i));
+        }
+        out.writeByte('\\');
+        out.writeByte(c == '\n' ? 'n' : c);
+        plain = i + 1;
+      }
+    }
+    if (plain == 0) {
+      ByteBufUtil.writeUtf8(out, s);
+    } else if (plain < s.length()) {
+      ByteBufUtil.writeUtf8(out, s.subSequence(plain, s.length()));
+    }
+  }
+
+  /**
+   * Same output as {@link Collector#doubleToGoString}, but integral values (the vast majority of counters and
+   * gauges) are written digit by digit instead of going through {@link Double#toString}.
+   */
+  private static void writeDouble(@NotNull ByteBuf out, double value) {
+    final long integral = (long) value;
+    if (integral == value && integral > -MAX_PLAIN_LONG && integral < MAX_PLAIN_LONG
+        && (integral != 0 || Double.doubleToRawLongBits(value) == 0L)) {
+      writeLong(out, integral);
+      out.writeBytes(FRACTION_ZERO);
+    } else {
+      ByteBufUtil.writeAscii(out, Collector.doubleToGoString(value));
+    }
+  }
+
+  private static void writeLong(@NotNull ByteBuf out, long value) {
+    if (value < 0) {
+      out.writeByte('-');
+      value = -value;
+    }
+    int digits = 1;
+    for (long v = value / 10; v != 0; v /= 10) {
+      digits++;
+    }
+    out.ensureWritable(digits);
+    final int start = out.writerIndex();
+    for (int i = start + digits - 1; i >= start; i--) {
+      out.setByte(i, (int) ('0' + value % 10));
+      value /= 10;
+    }
+    out.writerIndex(start + digits);
+  }
+
+  private static @NotNull String typeString(@NotNull Collector.Type type) {
+    switch (type) {
+      case GAUGE:
+        return "gauge";
+      case COUNTER:
+        return "counter";
+      case SUMMARY:
+        return "summary";
+      case HISTOGRAM:
+        return "histogram";
+      default:
+        return "untyped";
+    }
+  }
+
+  private static @NotNull byte[] ascii(@NotNull String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  private static final class Family {
+    private final @NotNull String help;
+    private final @NotNull Collector.Type type;
+    private final @NotNull byte[] header;
+    private final @NotNull ConcurrentMap<List<String>, byte[][]> labelPrefixes = new ConcurrentHashMap<>();
+
+    Family(@NotNull MetricFamilySamples samples) {
+      help = samples.help;
+      type = samples.type;
+
+      final ByteBuf out = Unpooled.buffer();
+      ByteBufUtil.writeAscii(out, "# HELP ");
+      ByteBufUtil.writeAscii(out, samples.name);
+      out.writeByte(' ');
+      writeEscaped(out, samples.help, false);
+      ByteBufUtil.writeAscii(out, "\n# TYPE ");
+      ByteBufUtil.writeAscii(out, samples.name);
+      out.writeByte(' ');
+      ByteBufUtil.writeAscii(out, typeString(samples.type));
+      out.writeByte('\n');
+      header = ByteBufUtil.getBytes(out);
+    }
+
+    boolean describes(@NotNull MetricFamilySamples samples) {
+      return type == samples.type && help.equals(samples.help);
+    }
+
+    /**
+     * @return {@code {name="} for the first label and {@code ",name="} for the following ones
+     */
+    @NotNull byte[][] labelPrefixes(@NotNull List<String> names) {
+      final byte[][] cached = labelPrefixes.get(names);
+      if (cached != null) {
+        return cached;
+      }
+      final byte[][] prefixes = new byte[names.size()][];
+      for (int i = 0; i < prefixes.length; i++) {
+        prefixes[i] = ascii((i == 0 ? "{" : "\",") + names.get(i) + "=\"");
+      }
+      labelPrefixes.put(names, prefixes);
+      return prefixes;
+    }
+  }
+}
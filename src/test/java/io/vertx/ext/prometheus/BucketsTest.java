@@ -0,0 +1,32 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.eventbus.EventBus;
+import org.junit.Test;
+
+public final class BucketsTest extends PrometheusMetricsTestCase {
+
+  public BucketsTest() {
+    super(options -> new VertxPrometheusOptions(options
+        .setBuckets(MetricsType.EventBus, Buckets.explicit(0.0001, 0.001))
+        .setBuckets("vertx_httpserver_requests_time_seconds", Buckets.logLinear(1 << 20, 1 << 22, 1))
+        .toJson()));
+  }
+
+  @Test
+  public void layouts() {
+    final EventBus eventBus = vertx().eventBus();
+    await(latch -> {
+      eventBus.consumer("buckets-address", message -> latch.complete());
+      eventBus.send("buckets-address", "test message");
+    });
+
+    await(response(body -> {}));
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_eventbus_messages_time_seconds_bucket{address=\"buckets-address\",le=\"1.0E-4\",}"), "Response doesn't contain explicit bucket");
+      context().assertTrue(text.contains("vertx_eventbus_messages_time_seconds_bucket{address=\"buckets-address\",le=\"+Inf\",} 1.0\n"), "Response doesn't contain +Inf bucket");
+      context().assertTrue(text.contains("vertx_httpserver_requests_time_seconds_bucket{local_address=\"localhost:" + PORT + "\",le=\"0.001572864\",}"), "Response doesn't contain log-linear bucket");
+      context().assertFalse(text.contains("vertx_eventbus_messages_time_seconds_bucket{address=\"buckets-address\",le=\"0.005\",}"), "Response contains default buckets");
+    }));
+  }
+}
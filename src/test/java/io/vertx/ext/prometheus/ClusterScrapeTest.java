@@ -0,0 +1,104 @@
+package io.vertx.ext.prometheus;
+
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.impl.VertxInternal;
+import io.vertx.ext.prometheus.server.ClusterSnapshots;
+import io.vertx.ext.unit.Async;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+public final class ClusterScrapeTest extends PrometheusMetricsTestCase {
+  private static final int AGGREGATOR_PORT = 8084;
+  private static final long NODE_TIMEOUT = 500;
+
+  private final @NotNull List<Vertx> nodes = new ArrayList<>();
+
+  public ClusterScrapeTest() {
+    super(options -> options.setClusterScrape(true));
+  }
+
+  @After
+  public void closeNodes() {
+    nodes.forEach(node -> await(latch -> node.close(v -> latch.complete())));
+  }
+
+  @Test
+  public void local() {
+    await(latch -> scrape(PORT, text -> text.contains("vertx_cluster_node_up{node=\"local\",} 1.0"), latch));
+  }
+
+  @Test
+  public void clustered() {
+    final Vertx aggregator = node(new VertxPrometheusOptions()
+        .setEnabled(true)
+        .setRegistry(new CollectorRegistry())
+        .setPort(AGGREGATOR_PORT)
+        .setClusterScrape(true)
+        .setClusterScrapeTimeout(NODE_TIMEOUT));
+    final CollectorRegistry registry = new CollectorRegistry();
+    Counter.build("test_exported_total", "Samples with a node label of their own").labelNames("node").register(registry).labels("own").inc();
+    final Vertx member = node(new VertxPrometheusOptions()
+        .setEnabled(true)
+        .setRegistry(registry)
+        .enableEmbeddedServer(false)
+        .setClusterScrape(true));
+    final Vertx silent = node(null);
+    silent.eventBus().consumer(ClusterSnapshots.address(nodeId(silent)), request -> {
+      // never answers
+    });
+
+    await(latch -> scrape(AGGREGATOR_PORT, text -> text.contains(up(member, 1)), latch));
+    final long start = System.nanoTime();
+    await(latch -> scrape(AGGREGATOR_PORT, text -> {
+      context().assertTrue(text.contains(up(aggregator, 1)), "Aggregator didn't answer");
+      context().assertTrue(text.contains(up(silent, 0)), "Silent node isn't reported");
+      context().assertTrue(text.contains("vertx_timers_number{state=\"active\",node=\"" + nodeId(member) + "\",}"),
+          "Member metrics aren't labelled by node");
+      context().assertTrue(text.contains("test_exported_total{exported_node=\"own\",node=\"" + nodeId(member) + "\",} 1.0"),
+          "Node label of the member isn't exported");
+      return true;
+    }, latch));
+    context().assertTrue(System.nanoTime() - start < 4 * NODE_TIMEOUT * 1_000_000, "Silent node stalled the scrape");
+  }
+
+  private @NotNull Vertx node(VertxPrometheusOptions options) {
+    final VertxOptions vertxOptions = new VertxOptions().setClustered(true).setClusterManager(new LocalClusterManager());
+    if (options != null) {
+      vertxOptions.setMetricsOptions(options);
+    }
+    final Vertx[] node = new Vertx[1];
+    await(latch -> Vertx.clusteredVertx(vertxOptions, result -> {
+      context().assertTrue(result.succeeded(), "Node didn't start");
+      node[0] = result.result();
+      latch.complete();
+    }));
+    nodes.add(node[0]);
+    return node[0];
+  }
+
+  private void scrape(int port, @NotNull Predicate<String> ready, @NotNull Async latch) {
+    vertx().createHttpClient().getNow(port, "localhost", "/metrics/cluster", response -> response.bodyHandler(body -> {
+      if (ready.test(body.toString())) {
+        latch.complete();
+      } else {
+        vertx().setTimer(100, id -> scrape(port, ready, latch));
+      }
+    }));
+  }
+
+  private static @NotNull String up(@NotNull Vertx node, int value) {
+    return "vertx_cluster_node_up{node=\"" + nodeId(node) + "\",} " + value + ".0";
+  }
+
+  private static @NotNull String nodeId(@NotNull Vertx node) {
+    return ((VertxInternal) node).getNodeID();
+  }
+}
@@ -0,0 +1,44 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.http.HttpHeaders;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+public final class CompressionTest extends PrometheusMetricsTestCase {
+
+  public CompressionTest() {
+    super(options -> options.setCompressionSupported(true));
+  }
+
+  @Test
+  public void gzip() {
+    await(response(body -> context().assertTrue(body.length() > 0, "Response is empty")));
+
+    await(latch -> vertx().createHttpClient()
+        .get(PORT, "localhost", "/metrics")
+        .putHeader(HttpHeaders.ACCEPT_ENCODING, "deflate;q=0.5, gzip")
+        .handler(response -> {
+          context().assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+          response.bodyHandler(body -> {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body.getBytes()))) {
+              final ByteArrayOutputStream out = new ByteArrayOutputStream();
+              final byte[] buffer = new byte[4096];
+              for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+              }
+              context().assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).contains("# TYPE vertx_"), "Unexpected content");
+            } catch (IOException e) {
+              context().fail(e);
+            }
+            latch.complete();
+          });
+        })
+        .end());
+  }
+}
@@ -0,0 +1,36 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import org.junit.Test;
+
+public final class DeploymentTest extends PrometheusMetricsTestCase {
+  private static final int DEPLOYED_PORT = 8082;
+
+  public DeploymentTest() {
+    super(options -> options.setDeploymentLabels(true));
+  }
+
+  @Test
+  public void deployment() {
+    await(latch -> DeploymentTimer.deploy(vertx(), new ConsumerVerticle(), new DeploymentOptions(), id -> latch.complete()));
+    await(latch -> vertx().eventBus().send("deployment-address", "test message", reply -> latch.complete()));
+    await(latch -> vertx().createHttpClient().getNow(DEPLOYED_PORT, "localhost", "/", response -> response.endHandler(v -> latch.complete())));
+
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_verticle_time_seconds_count{class=\"" + ConsumerVerticle.class.getName() + "\",phase=\"deploy\",} 1.0"), "Response doesn't contain deploy time");
+      context().assertTrue(text.contains("vertx_deployment_time_seconds_count{deployment=\"" + ConsumerVerticle.class.getName() + "\",type=\"eventbus\",} 1.0"), "Response doesn't contain event bus deployment time");
+      context().assertTrue(text.contains("vertx_deployment_time_seconds_count{deployment=\"" + ConsumerVerticle.class.getName() + "\",type=\"httpserver\",} 1.0"), "Response doesn't contain HTTP server deployment time");
+    }));
+  }
+
+  public static final class ConsumerVerticle extends AbstractVerticle {
+    @Override
+    public void start(Future<Void> future) {
+      vertx.eventBus().consumer("deployment-address", message -> message.reply("test reply"));
+      vertx.createHttpServer().requestHandler(request -> request.response().end()).listen(DEPLOYED_PORT, server -> future.complete());
+    }
+  }
+}
@@ -21,7 +21,8 @@ public final class DisableTest extends PrometheusMetricsTestCase {
     Timers(MetricsType.Timers, "vertx_timers"),
     EventBus(MetricsType.EventBus, "vertx_eventbus"),
     HttpClient(MetricsType.HTTPClient, "vertx_httpclient"),
-    Pools(MetricsType.Pools, "vertx_pool");
+    Pools(MetricsType.Pools, "vertx_pool"),
+    EventLoops(MetricsType.EventLoops, "vertx_eventloop");
 
     private final @NotNull MetricsType type;
     private final @NotNull String prefix;
@@ -40,7 +41,7 @@ public final class DisableTest extends PrometheusMetricsTestCase {
   }
 
   public DisableTest(@NotNull Metric disabled) {
-    super(options -> options.disable(disabled.type));
+    super(options -> options.enable(MetricsType.EventLoops).disable(disabled.type));
     this.disabled = disabled;
   }
 
@@ -0,0 +1,36 @@
+package io.vertx.ext.prometheus;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class EventLoopLagTest extends PrometheusMetricsTestCase {
+  private static final long INTERVAL = 10;
+
+  public EventLoopLagTest() {
+    super(options -> options.enable(MetricsType.EventLoops).setEventLoopProbeInterval(INTERVAL));
+  }
+
+  @Test
+  public void probed() {
+    await(latch -> vertx().setTimer(20 * INTERVAL, id -> latch.complete()));
+
+    await(response(body -> {
+      final String text = body.toString();
+      final double count = value(text, "vertx_eventloop_lag_seconds_count{loop=\"0\",}");
+      final double sum = value(text, "vertx_eventloop_lag_seconds_sum{loop=\"0\",}");
+      final double max = value(text, "vertx_eventloop_max_lag_seconds{loop=\"0\",}");
+      context().assertTrue(count >= 5, "Event loop was probed " + count + " times");
+      context().assertTrue(sum >= 0 && sum / count < 1, "Mean lag is " + sum / count + " seconds");
+      context().assertTrue(max >= 0 && max < 5, "Max lag is " + max + " seconds");
+    }));
+  }
+
+  private double value(@NotNull String text, @NotNull String series) {
+    final Matcher matcher = Pattern.compile("^" + Pattern.quote(series) + " (\\S+)$", Pattern.MULTILINE).matcher(text);
+    context().assertTrue(matcher.find(), "Response doesn't contain " + series);
+    return Double.parseDouble(matcher.group(1));
+  }
+}
@@ -2,6 +2,7 @@ package io.vertx.ext.prometheus;
 
 import io.prometheus.client.CollectorRegistry;
 import io.vertx.core.eventbus.EventBus;
+import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunnerWithParametersFactory;
 import org.jetbrains.annotations.NotNull;
@@ -10,10 +11,15 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(Parameterized.class)
 @Parameterized.UseParametersRunnerFactory(VertxUnitRunnerWithParametersFactory.class)
 public final class ExposeTest extends PrometheusMetricsTestCase {
+  private static final long PEAK_WINDOW = 500;
 
   @Parameterized.Parameters
   public static @NotNull Iterable<CollectorRegistry> data() {
@@ -24,7 +30,7 @@ public final class ExposeTest extends PrometheusMetricsTestCase {
   }
 
   public ExposeTest(@NotNull CollectorRegistry registry) {
-    super(registry);
+    super(options -> options.setPeakWindow(PEAK_WINDOW), registry);
   }
 
   @Test
@@ -44,6 +50,78 @@ public final class ExposeTest extends PrometheusMetricsTestCase {
     ));
   }
 
+  @Test
+  public void requestPhases(@NotNull TestContext context) {
+    await(response(body -> {}));
+
+    test(context, Arrays.asList(
+        // the scrape request itself may or may not have been sent when the server renders the response
+        "vertx_httpclient_requests_sent_time_seconds_count{local_address=\"unknown\",}",
+        "vertx_httpclient_requests_first_byte_time_seconds_count{local_address=\"unknown\",} 1.0",
+        "vertx_httpclient_requests_round_trip_time_seconds_count{local_address=\"unknown\",} 1.0",
+        "vertx_httpserver_requests_round_trip_time_seconds_count{local_address=\"localhost:" + PORT + "\",} 1.0"
+    ));
+  }
+
+  @Test
+  public void endpoints(@NotNull TestContext context) {
+    await(response(body -> {}));
+
+    test(context, Arrays.asList(
+        "vertx_httpclient_endpoints{local_address=\"unknown\",endpoint=\"localhost:" + PORT + "\",state=\"max\",} 5.0",
+        "vertx_httpclient_endpoints_queue_time_seconds_count{local_address=\"unknown\",endpoint=\"localhost:" + PORT + "\",}"
+    ));
+  }
+
+  @Test
+  public void poolResults(@NotNull TestContext context) {
+    await(latch -> vertx().executeBlocking(future -> future.complete(), result -> latch.complete()));
+    await(latch -> vertx().executeBlocking(future -> future.fail("test failure"), result -> latch.complete()));
+
+    test(context, Arrays.asList(
+        "vertx_pool_results{type=\"worker\",name=\"vert.x-worker-thread\",result=\"succeeded\",} 1.0",
+        "vertx_pool_results{type=\"worker\",name=\"vert.x-worker-thread\",result=\"failed\",} 1.0",
+        "vertx_pool_tasks_peak{type=\"worker\",name=\"vert.x-worker-thread\",state=\"used\",} 1.0",
+        "vertx_pool_busy_seconds{type=\"worker\",name=\"vert.x-worker-thread\",}"
+    ));
+  }
+
+  @Test
+  public void poolPeakWindow(@NotNull TestContext context) {
+    await(latch -> burst(2, latch));
+    test(context, Collections.singletonList("vertx_pool_tasks_peak{type=\"worker\",name=\"vert.x-worker-thread\",state=\"used\",} 2.0"));
+
+    // a quiet slot later, a lower burst is visible rather than hidden by the first one
+    await(latch -> vertx().setTimer(3 * PEAK_WINDOW, id -> latch.complete()));
+    test(context, Collections.singletonList("vertx_pool_tasks_peak{type=\"worker\",name=\"vert.x-worker-thread\",state=\"used\",} 0.0"));
+
+    await(latch -> burst(1, latch));
+    test(context, Collections.singletonList("vertx_pool_tasks_peak{type=\"worker\",name=\"vert.x-worker-thread\",state=\"used\",} 1.0"));
+  }
+
+  /**
+   * Runs the tasks on the worker pool at once, each waiting for the others to start.
+   */
+  private void burst(int tasks, @NotNull Async latch) {
+    final CountDownLatch started = new CountDownLatch(tasks);
+    final AtomicInteger ended = new AtomicInteger();
+    for (int i = 0; i < tasks; i++) {
+      vertx().<Void>executeBlocking(future -> {
+        started.countDown();
+        try {
+          started.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        future.complete();
+      }, false, result -> {
+        if (ended.incrementAndGet() == tasks) {
+          latch.complete();
+        }
+      });
+    }
+  }
+
   private void test(@NotNull TestContext context, @NotNull Iterable<String> data) {
     await(response(body -> data.forEach(s -> context.assertTrue(body.toString().contains(s), "Response doesn't contain " + s))));
   }
@@ -0,0 +1,181 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.AsyncResult;
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.AsyncMap;
+import io.vertx.core.shareddata.Counter;
+import io.vertx.core.shareddata.Lock;
+import io.vertx.core.spi.cluster.AsyncMultiMap;
+import io.vertx.core.spi.cluster.ChoosableIterable;
+import io.vertx.core.spi.cluster.ClusterManager;
+import io.vertx.core.spi.cluster.NodeListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cluster manager of Vert.x instances in the same JVM, with just enough state for the clustered event bus.
+ */
+final class LocalClusterManager implements ClusterManager {
+  private static final @NotNull List<String> NODES = new CopyOnWriteArrayList<>();
+  private static final @NotNull ConcurrentMap<String, Map<?, ?>> SYNC_MAPS = new ConcurrentHashMap<>();
+  private static final @NotNull ConcurrentMap<String, ConcurrentMap<?, Set<?>>> MULTI_MAPS = new ConcurrentHashMap<>();
+
+  private final @NotNull String nodeId = UUID.randomUUID().toString();
+  private @Nullable Vertx vertx;
+  private boolean active;
+
+  @Override
+  public void setVertx(@NotNull Vertx vertx) {
+    this.vertx = vertx;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> void getAsyncMultiMap(@NotNull String name, @NotNull Handler<AsyncResult<AsyncMultiMap<K, V>>> handler) {
+    execute(() -> new LocalMultiMap<>((ConcurrentMap<K, Set<V>>) (ConcurrentMap<?, ?>) MULTI_MAPS.computeIfAbsent(name, n -> new ConcurrentHashMap<>())), handler);
+  }
+
+  @Override
+  public <K, V> void getAsyncMap(@NotNull String name, @NotNull Handler<AsyncResult<AsyncMap<K, V>>> handler) {
+    handler.handle(Future.failedFuture(new UnsupportedOperationException()));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> @NotNull Map<K, V> getSyncMap(@NotNull String name) {
+    return (Map<K, V>) SYNC_MAPS.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+  }
+
+  @Override
+  public void getLockWithTimeout(@NotNull String name, long timeout, @NotNull Handler<AsyncResult<Lock>> handler) {
+    handler.handle(Future.failedFuture(new UnsupportedOperationException()));
+  }
+
+  @Override
+  public void getCounter(@NotNull String name, @NotNull Handler<AsyncResult<Counter>> handler) {
+    handler.handle(Future.failedFuture(new UnsupportedOperationException()));
+  }
+
+  @Override
+  public @NotNull String getNodeID() {
+    return nodeId;
+  }
+
+  @Override
+  public @NotNull List<String> getNodes() {
+    return new ArrayList<>(NODES);
+  }
+
+  @Override
+  public void nodeListener(@NotNull NodeListener listener) {
+    // nodes never fail
+  }
+
+  @Override
+  public void join(@NotNull Handler<AsyncResult<Void>> handler) {
+    execute(() -> {
+      NODES.add(nodeId);
+      active = true;
+      return null;
+    }, handler);
+  }
+
+  @Override
+  public void leave(@NotNull Handler<AsyncResult<Void>> handler) {
+    execute(() -> {
+      NODES.remove(nodeId);
+      active = false;
+      return null;
+    }, handler);
+  }
+
+  @Override
+  public boolean isActive() {
+    return active;
+  }
+
+  private <T> void execute(@NotNull Supplier<T> action, @NotNull Handler<AsyncResult<T>> handler) {
+    vertx.<T>executeBlocking(future -> future.complete(action.get()), false, handler);
+  }
+
+  private final class LocalMultiMap<K, V> implements AsyncMultiMap<K, V> {
+    private final @NotNull ConcurrentMap<K, Set<V>> entries;
+
+    private LocalMultiMap(@NotNull ConcurrentMap<K, Set<V>> entries) {
+      this.entries = entries;
+    }
+
+    @Override
+    public void add(@NotNull K key, @NotNull V value, @NotNull Handler<AsyncResult<Void>> handler) {
+      execute(() -> {
+        entries.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(value);
+        return null;
+      }, handler);
+    }
+
+    @Override
+    public void get(@NotNull K key, @NotNull Handler<AsyncResult<ChoosableIterable<V>>> handler) {
+      execute(() -> new Choosable<>(new ArrayList<>(entries.getOrDefault(key, ConcurrentHashMap.newKeySet()))), handler);
+    }
+
+    @Override
+    public void remove(@NotNull K key, @NotNull V value, @NotNull Handler<AsyncResult<Boolean>> handler) {
+      execute(() -> {
+        final Set<V> values = entries.get(key);
+        return values != null && values.remove(value);
+      }, handler);
+    }
+
+    @Override
+    public void removeAllForValue(@NotNull V value, @NotNull Handler<AsyncResult<Void>> handler) {
+      removeAllMatching(value::equals, handler);
+    }
+
+    @Override
+    public void removeAllMatching(@NotNull Predicate<V> predicate, @NotNull Handler<AsyncResult<Void>> handler) {
+      execute(() -> {
+        entries.values().forEach(values -> values.removeIf(predicate));
+        return null;
+      }, handler);
+    }
+  }
+
+  private static final class Choosable<V> implements ChoosableIterable<V> {
+    private final @NotNull List<V> values;
+    private final @NotNull AtomicInteger next = new AtomicInteger();
+
+    private Choosable(@NotNull List<V> values) {
+      this.values = values;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return values.isEmpty();
+    }
+
+    @Override
+    public @Nullable V choose() {
+      return values.isEmpty() ? null : values.get(Math.floorMod(next.getAndIncrement(), values.size()));
+    }
+
+    @Override
+    public @NotNull Iterator<V> iterator() {
+      return values.iterator();
+    }
+  }
+}
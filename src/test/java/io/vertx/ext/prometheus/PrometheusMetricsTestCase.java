@@ -46,7 +46,7 @@ abstract class PrometheusMetricsTestCase {
     this(UnaryOperator.identity(), registry);
   }
 
-  private PrometheusMetricsTestCase(@NotNull UnaryOperator<VertxPrometheusOptions> options, @NotNull CollectorRegistry registry) {
+  protected PrometheusMetricsTestCase(@NotNull UnaryOperator<VertxPrometheusOptions> options, @NotNull CollectorRegistry registry) {
     this.registry = registry;
     this.options = options.compose(o -> o
         .setEnabled(true)
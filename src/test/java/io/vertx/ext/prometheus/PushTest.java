@@ -0,0 +1,76 @@
+package io.vertx.ext.prometheus;
+
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.unit.Async;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class PushTest extends PrometheusMetricsTestCase {
+  private static final int GATEWAY_PORT = 8083;
+
+  private final @NotNull Queue<String> pushes = new ConcurrentLinkedQueue<>();
+  private final @NotNull AtomicInteger requests = new AtomicInteger();
+  private @NotNull Vertx gateway;
+
+  public PushTest() {
+    super(options -> options
+        .enablePush(true)
+        .setPushPort(GATEWAY_PORT)
+        .setPushJob("batch job")
+        .setPushInterval(300));
+  }
+
+  @Before
+  public void startGateway() {
+    gateway = Vertx.vertx();
+    await(latch -> gateway.createHttpServer().requestHandler(this::push).listen(GATEWAY_PORT, server -> latch.complete()));
+  }
+
+  @After
+  public void stopGateway() {
+    await(latch -> gateway.close(v -> latch.complete()));
+  }
+
+  @Test
+  public void retryAndFlushOnClose() {
+    await(latch -> waitForPushes(1, latch));
+    context().assertTrue(requests.get() > pushes.size(), "Failed push wasn't retried");
+    context().assertTrue(pushes.peek().contains("# TYPE vertx_"), "Push doesn't contain Vert.x metrics");
+
+    final int before = pushes.size();
+    await(latch -> vertx().close(v -> latch.complete()));
+    context().assertTrue(pushes.size() > before, "Metrics weren't pushed on close");
+  }
+
+  private void push(@NotNull HttpServerRequest request) {
+    context().assertEquals(HttpMethod.PUT, request.method());
+    context().assertEquals("/metrics/job/batch%20job", request.path());
+    context().assertTrue(request.getHeader(HttpHeaders.CONTENT_TYPE).startsWith("text/plain"));
+    request.bodyHandler(body -> {
+      if (requests.getAndIncrement() == 0) {
+        request.response().setStatusCode(HttpResponseStatus.SERVICE_UNAVAILABLE.code()).end();
+      } else {
+        pushes.add(body.toString());
+        request.response().setStatusCode(HttpResponseStatus.ACCEPTED.code()).end();
+      }
+    });
+  }
+
+  private void waitForPushes(int count, @NotNull Async latch) {
+    if (pushes.size() >= count) {
+      latch.complete();
+    } else {
+      gateway.setTimer(50, id -> waitForPushes(count, latch));
+    }
+  }
+}
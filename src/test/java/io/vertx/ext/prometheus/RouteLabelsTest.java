@@ -0,0 +1,56 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.ext.web.Router;
+import org.junit.Test;
+
+public final class RouteLabelsTest extends PrometheusMetricsTestCase {
+  private static final int ROUTED_PORT = 8081;
+
+  public RouteLabelsTest() {
+    super(options -> options.setRouteLabels(true));
+  }
+
+  @Test
+  public void routeTemplate() {
+    final Router router = Router.router(vertx());
+    router.route().handler(RouteLabelHandler.create());
+    router.get("/users/:id").handler(context -> context.response().end(context.pathParam("id")));
+    await(latch -> vertx().createHttpServer().requestHandler(router::accept).listen(ROUTED_PORT, server -> latch.complete()));
+
+    for (int i = 0; i < 2; i++) {
+      final String uri = "/users/" + i;
+      await(latch -> vertx().createHttpClient().getNow(ROUTED_PORT, "localhost", uri, response -> response.endHandler(v -> latch.complete())));
+    }
+    await(latch -> vertx().createHttpClient().getNow(ROUTED_PORT, "localhost", "/missing", response -> response.endHandler(v -> latch.complete())));
+
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_httpserver_route_time_seconds_count{local_address=\"0.0.0.0:" + ROUTED_PORT + "\",route=\"/users/:id\",} 2.0"), "Response doesn't contain route latency");
+      context().assertTrue(text.contains("vertx_httpserver_route_responses{local_address=\"0.0.0.0:" + ROUTED_PORT + "\",route=\"/users/:id\",code=\"200\",} 2.0"), "Response doesn't contain route responses");
+      context().assertTrue(text.contains("vertx_httpserver_route_responses{local_address=\"0.0.0.0:" + ROUTED_PORT + "\",route=\"unknown\",code=\"404\",} 1.0"), "Response doesn't contain unmatched responses");
+      context().assertFalse(text.contains("route=\"/users/0\""), "Response contains raw path");
+    }));
+  }
+
+  @Test
+  public void subRouterTemplate() {
+    final Router api = Router.router(vertx());
+    api.route().handler(RouteLabelHandler.create());
+    api.get("/items/:id").handler(context -> context.response().end(context.pathParam("id")));
+    final Router router = Router.router(vertx());
+    router.route().handler(RouteLabelHandler.create());
+    router.mountSubRouter("/api", api);
+    await(latch -> vertx().createHttpServer().requestHandler(router::accept).listen(ROUTED_PORT, server -> latch.complete()));
+
+    for (int i = 0; i < 2; i++) {
+      final String uri = "/api/items/" + i;
+      await(latch -> vertx().createHttpClient().getNow(ROUTED_PORT, "localhost", uri, response -> response.endHandler(v -> latch.complete())));
+    }
+
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_httpserver_route_responses{local_address=\"0.0.0.0:" + ROUTED_PORT + "\",route=\"/api/items/:id\",code=\"200\",} 2.0"), "Response doesn't contain sub-router route responses");
+      context().assertFalse(text.contains("route=\"/api\""), "Response labels sub-router requests by mount point");
+    }));
+  }
+}
@@ -0,0 +1,30 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.eventbus.EventBus;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class ScrapeCacheTest extends PrometheusMetricsTestCase {
+
+  public ScrapeCacheTest() {
+    super(options -> options.setScrapeCacheTtl(60_000));
+  }
+
+  @Test
+  public void cached() {
+    final AtomicReference<String> first = new AtomicReference<>();
+    await(response(body -> first.set(body.toString())));
+
+    final EventBus eventBus = vertx().eventBus();
+    await(latch -> {
+      eventBus.consumer("cached-address", message -> latch.complete());
+      eventBus.send("cached-address", "test message");
+    });
+
+    await(response(body -> {
+      context().assertEquals(first.get(), body.toString());
+      context().assertFalse(body.toString().contains("cached-address"), "Response is not cached");
+    }));
+  }
+}
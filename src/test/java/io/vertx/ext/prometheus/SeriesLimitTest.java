@@ -0,0 +1,89 @@
+package io.vertx.ext.prometheus;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.eventbus.EventBus;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class SeriesLimitTest extends PrometheusMetricsTestCase {
+  private static final @NotNull String OVERFLOWS = "vertx_series_overflows{family=\"vertx_eventbus_messages\",}";
+
+  public SeriesLimitTest() {
+    super(options -> options.setMaxSeriesPerFamily(4));
+  }
+
+  @Test
+  public void overflow() {
+    final EventBus eventBus = vertx().eventBus();
+    for (int i = 0; i < 3; i++) {
+      final String address = "limited-address-" + i;
+      await(latch -> {
+        eventBus.consumer(address, message -> latch.complete());
+        eventBus.send(address, "test message");
+      });
+    }
+
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_eventbus_messages{range=\"local\",state=\"sent\",address=\"limited-address-0\",} 1.0\n"), "Response doesn't contain first address");
+      context().assertFalse(text.contains("vertx_eventbus_messages{range=\"local\",state=\"sent\",address=\"limited-address-2\",}"), "Response contains address beyond limit");
+      context().assertTrue(text.contains("vertx_eventbus_messages{range=\"local\",state=\"sent\",address=\"__overflow__\",}"), "Response doesn't contain overflow series by state");
+      context().assertFalse(text.contains("state=\"__overflow__\""), "Response folds closed-set labels");
+      context().assertTrue(text.contains("vertx_series_overflows{family=\"vertx_eventbus_messages\",}"), "Response doesn't contain overflows");
+    }));
+  }
+
+  @Test
+  public void overflowsCountLabelCombinationsOnce() {
+    final EventBus eventBus = vertx().eventBus();
+    for (int i = 0; i < 3; i++) {
+      final String address = "counted-address-" + i;
+      eventBus.consumer(address, message -> message.reply("test reply"));
+      await(latch -> eventBus.send(address, "test message", reply -> latch.complete()));
+    }
+    final double[] overflows = new double[1];
+    await(response(body -> overflows[0] = value(body.toString())));
+
+    for (int i = 0; i < 5; i++) {
+      await(latch -> eventBus.send("counted-address-2", "test message", reply -> latch.complete()));
+    }
+
+    await(response(body -> context().assertEquals(overflows[0], value(body.toString()),
+        "Updates of folded label combinations are counted again")));
+  }
+
+  @Test
+  public void limitIsSharedByInstances() {
+    final Vertx other = Vertx.vertx(new VertxOptions().setMetricsOptions(new VertxPrometheusOptions()
+        .setEnabled(true)
+        .enableEmbeddedServer(false)
+        .setRegistry(CollectorRegistry.defaultRegistry)
+        .setMaxSeriesPerFamily(4)));
+    try {
+      for (int i = 0; i < 3; i++) {
+        final EventBus eventBus = i < 2 ? vertx().eventBus() : other.eventBus();
+        final String address = "shared-address-" + i;
+        await(latch -> {
+          eventBus.consumer(address, message -> latch.complete());
+          eventBus.send(address, "test message");
+        });
+      }
+
+      await(response(body -> context().assertFalse(body.toString().contains("address=\"shared-address-2\""),
+          "Other instance has a limit of its own")));
+    } finally {
+      await(latch -> other.close(result -> latch.complete()));
+    }
+  }
+
+  private double value(@NotNull String text) {
+    final Matcher matcher = Pattern.compile("^" + Pattern.quote(OVERFLOWS) + " (\\S+)$", Pattern.MULTILINE).matcher(text);
+    context().assertTrue(matcher.find(), "Response doesn't contain " + OVERFLOWS);
+    return Double.parseDouble(matcher.group(1));
+  }
+}
@@ -0,0 +1,55 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.eventbus.MessageConsumer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+public final class SeriesRemovalTest extends PrometheusMetricsTestCase {
+  private static final int SERVER_PORT = 10030;
+  private static final @NotNull String SERVER = "local_address=\"127.0.0.1:" + SERVER_PORT + "\"";
+  private static final @NotNull String CLIENT = "vertx_httpclient_connections{local_address=\"127.0.0.1\"";
+
+  @Test
+  public void closedServerAndClient() {
+    final HttpServer server = vertx().createHttpServer(new HttpServerOptions().setHost("127.0.0.1").setPort(SERVER_PORT))
+        .requestHandler(request -> request.response().end());
+    await(latch -> server.listen(result -> latch.complete()));
+    final HttpClient client = vertx().createHttpClient(new HttpClientOptions().setLocalAddress("127.0.0.1"));
+    await(latch -> client.getNow(SERVER_PORT, "127.0.0.1", "/", response -> response.endHandler(v -> latch.complete())));
+
+    await(response(body -> {
+      context().assertTrue(body.toString().contains("vertx_httpserver_responses{" + SERVER), "Server series are missing");
+      context().assertTrue(body.toString().contains(CLIENT), "Client series are missing");
+    }));
+
+    await(latch -> server.close(result -> latch.complete()));
+    client.close();
+
+    await(response(body -> {
+      context().assertFalse(body.toString().contains(SERVER), "Server series are left behind");
+      context().assertFalse(body.toString().contains(CLIENT), "Client series are left behind");
+    }));
+  }
+
+  @Test
+  public void unregisteredHandlers() {
+    final MessageConsumer<String> first = vertx().eventBus().consumer("removed", message -> {
+    });
+    final MessageConsumer<String> second = vertx().eventBus().consumer("removed", message -> {
+    });
+    await(latch -> first.completionHandler(result -> latch.complete()));
+    await(latch -> second.completionHandler(result -> latch.complete()));
+    vertx().eventBus().publish("removed", "message");
+
+    await(latch -> first.unregister(result -> latch.complete()));
+    await(response(body -> context().assertTrue(body.toString().contains("address=\"removed\""), "Series are removed with a handler left")));
+
+    await(latch -> second.unregister(result -> latch.complete()));
+    await(response(body -> context().assertFalse(body.toString().contains("vertx_eventbus_messages{range=\"local\",state=\"received\",address=\"removed\""),
+        "Message series are left behind")));
+  }
+}
@@ -0,0 +1,73 @@
+package io.vertx.ext.prometheus;
+
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.ext.unit.Async;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+public final class SeriesTtlTest extends PrometheusMetricsTestCase {
+  private static final long TTL = 200;
+  private static final int SERVER_PORT = 10040;
+  private static final @NotNull String TOTAL = "vertx_httpserver_requests{local_address=\"127.0.0.1:" + SERVER_PORT
+      + "\",method=\"GET\",host=\"127.0.0.1:" + SERVER_PORT + "\",state=\"total\",}";
+
+  public SeriesTtlTest() {
+    super(options -> options.setSeriesTtl(TTL));
+  }
+
+  @Test
+  public void idleSeriesAreEvicted() {
+    vertx().eventBus().send("idle", "message");
+    await(latch -> vertx().createHttpClient().getNow(PORT, "127.0.0.1", "/metrics", response -> response.endHandler(v -> latch.complete())));
+
+    await(response(body -> {
+      context().assertTrue(body.toString().contains("address=\"idle\""), "Address series are missing");
+      context().assertTrue(body.toString().contains("host=\"127.0.0.1\""), "Host series are missing");
+    }));
+
+    await(latch -> vertx().setTimer(3 * TTL, id -> latch.complete()));
+
+    await(response(body -> {
+      context().assertFalse(body.toString().contains("address=\"idle\""), "Idle address series are left behind");
+      context().assertFalse(body.toString().contains("host=\"127.0.0.1\""), "Idle host series are left behind");
+      context().assertTrue(body.toString().contains("host=\"localhost\""), "Series in use are evicted");
+    }));
+  }
+
+  @Test
+  public void seriesInUseBySharedServerAreKept() {
+    for (int i = 0; i < 2; i++) {
+      final HttpServer server = vertx().createHttpServer(new HttpServerOptions().setHost("127.0.0.1").setPort(SERVER_PORT))
+          .requestHandler(request -> request.response().end());
+      await(latch -> server.listen(result -> latch.complete()));
+    }
+    // connections are dealt to the servers in turn, so one of them only sees the first request
+    final HttpClient first = vertx().createHttpClient();
+    await(latch -> first.getNow(SERVER_PORT, "127.0.0.1", "/", response -> response.endHandler(v -> latch.complete())));
+    first.close();
+
+    final HttpClient second = vertx().createHttpClient(new HttpClientOptions().setKeepAlive(true).setMaxPoolSize(1));
+    final int requests = 20;
+    await(latch -> request(second, requests, latch));
+    second.close();
+
+    await(response(body -> context().assertTrue(body.toString().contains(TOTAL + " " + (requests + 1) + ".0\n"),
+        "Series in use by one server are evicted by the other")));
+
+    await(latch -> vertx().setTimer(3 * TTL, id -> latch.complete()));
+
+    await(response(body -> context().assertFalse(body.toString().contains(TOTAL), "Idle shared series are left behind")));
+  }
+
+  private void request(@NotNull HttpClient client, int remaining, @NotNull Async latch) {
+    if (remaining == 0) {
+      latch.complete();
+      return;
+    }
+    client.getNow(SERVER_PORT, "127.0.0.1", "/", response -> response.endHandler(v ->
+        vertx().setTimer(TTL / 4, id -> request(client, remaining - 1, latch))));
+  }
+}
@@ -0,0 +1,26 @@
+package io.vertx.ext.prometheus;
+
+import org.junit.Test;
+
+public final class ShardedCollectorsTest extends PrometheusMetricsTestCase {
+
+  public ShardedCollectorsTest() {
+    super(options -> options.setShardedCollectors(true));
+  }
+
+  @Test
+  public void merged() {
+    await(response(body -> {}));
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("# TYPE vertx_httpserver_responses counter\n"), "Response doesn't contain responses type");
+      context().assertTrue(text.contains("vertx_httpserver_responses{local_address=\"localhost:" + PORT + "\",code=\"200\",} 1.0\n"), "Response doesn't contain merged responses");
+      context().assertTrue(text.contains("vertx_httpserver_requests{local_address=\"localhost:" + PORT + "\",method=\"GET\",host=\"localhost:" + PORT + "\",state=\"active\",} 1.0\n"), "Response doesn't contain merged requests");
+    }));
+  }
+
+  @Test
+  public void set() {
+    await(response(body -> context().assertTrue(body.toString().contains("vertx_pool_tasks{type=\"worker\",name=\"vert.x-worker-thread\",state=\"max_size\",} 20.0\n"), "Response doesn't contain set pool max size")));
+  }
+}
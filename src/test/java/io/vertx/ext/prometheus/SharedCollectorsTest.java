@@ -0,0 +1,56 @@
+package io.vertx.ext.prometheus;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public final class SharedCollectorsTest extends PrometheusMetricsTestCase {
+
+  @Test
+  public void closingOneInstanceKeepsSharedFamilies() {
+    close(start(CollectorRegistry.defaultRegistry));
+
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_pool_tasks{"), "Pool family was unregistered");
+      context().assertTrue(text.contains("vertx_eventbus_handlers "), "Event bus family was unregistered");
+      context().assertTrue(text.contains("# TYPE vertx_timers_number gauge"), "Timers family was unregistered");
+    }));
+  }
+
+  @Test
+  public void instancesOfOtherRegistriesAreIsolated() {
+    final CollectorRegistry registry = new CollectorRegistry();
+    for (int i = 0; i < 2; i++) {
+      final Vertx other = start(registry);
+      context().assertTrue(names(registry).contains("vertx_pool_tasks"), "Pool family isn't registered");
+      close(other);
+      context().assertTrue(names(registry).isEmpty(), "Families are left behind on close");
+    }
+
+    await(response(body -> context().assertTrue(body.toString().contains("vertx_pool_tasks{"), "Pool family was unregistered")));
+  }
+
+  private @NotNull Vertx start(@NotNull CollectorRegistry registry) {
+    return Vertx.vertx(new VertxOptions().setMetricsOptions(new VertxPrometheusOptions()
+        .setEnabled(true)
+        .enableEmbeddedServer(false)
+        .setRegistry(registry)));
+  }
+
+  private void close(@NotNull Vertx vertx) {
+    await(latch -> vertx.close(result -> latch.complete()));
+  }
+
+  private static @NotNull List<String> names(@NotNull CollectorRegistry registry) {
+    final List<String> names = new ArrayList<>();
+    Collections.list(registry.metricFamilySamples()).forEach(family -> names.add(family.name));
+    return names;
+  }
+}
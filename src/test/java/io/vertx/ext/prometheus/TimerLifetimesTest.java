@@ -0,0 +1,23 @@
+package io.vertx.ext.prometheus;
+
+import org.junit.Test;
+
+public final class TimerLifetimesTest extends PrometheusMetricsTestCase {
+
+  public TimerLifetimesTest() {
+    super(options -> options.setTimerLifetimes(true));
+  }
+
+  @Test
+  public void firedAndCancelled() {
+    // the timer ends once its handler has returned
+    await(latch -> vertx().setTimer(1, id -> vertx().runOnContext(v -> latch.complete())));
+    vertx().cancelTimer(vertx().setTimer(60_000, id -> {}));
+
+    await(response(body -> {
+      final String text = body.toString();
+      context().assertTrue(text.contains("vertx_timers_lifetime_seconds_count{state=\"fired\",} 1.0"), "Response doesn't contain fired timer");
+      context().assertTrue(text.contains("vertx_timers_lifetime_seconds_count{state=\"cancelled\",} 1.0"), "Response doesn't contain cancelled timer");
+    }));
+  }
+}
@@ -0,0 +1,74 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import io.prometheus.client.CollectorRegistry;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.ext.prometheus.MetricsType;
+import io.vertx.ext.prometheus.metrics.factories.CounterFactory;
+import io.vertx.ext.prometheus.metrics.factories.GaugeFactory;
+import io.vertx.ext.prometheus.metrics.factories.HistogramFactory;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public final class HTTPRequestMetricsTest {
+  private static final @NotNull String HOST = "localhost:8080";
+
+  private CollectorRegistry registry;
+  private HTTPRequestMetrics requests;
+
+  @Before
+  public void setUp() {
+    registry = new CollectorRegistry(false);
+    requests = new HTTPRequestMetrics(MetricsType.HTTPClient, "httpclient", "unknown",
+        new GaugeFactory(registry), new CounterFactory(registry), new HistogramFactory(registry));
+  }
+
+  @Test
+  public void resetAfterResponseEnd() {
+    final HTTPRequestMetrics.Metric metric = requests.beginExchange(HttpMethod.GET, HOST);
+    requests.responseEnd(metric, 200);
+    requests.reset(metric);
+
+    assertState("active", 0);
+    assertState("processed", 1);
+    assertState("reset", 1);
+    // the request phase is still outstanding, so the metric isn't recycled yet
+    assertNotSame(metric, requests.begin(HttpMethod.GET, HOST));
+
+    requests.requestEnd(metric);
+    assertState("processed", 1);
+  }
+
+  @Test
+  public void requestEndAfterReset() {
+    final HTTPRequestMetrics.Metric metric = requests.beginExchange(HttpMethod.GET, HOST);
+    requests.reset(metric);
+
+    assertState("active", 0);
+    assertState("processed", 1);
+    assertState("reset", 1);
+    assertNotSame(metric, requests.begin(HttpMethod.GET, HOST));
+
+    requests.requestEnd(metric);
+    assertState("processed", 1);
+    assertState("reset", 1);
+  }
+
+  @Test
+  public void upgradeEndsRequest() {
+    final HTTPRequestMetrics.Metric metric = requests.begin(HttpMethod.GET, HOST);
+    requests.upgrade(metric);
+
+    assertState("active", 0);
+    assertState("upgraded", 1);
+  }
+
+  private void assertState(@NotNull String state, double expected) {
+    final Double value = registry.getSampleValue("vertx_httpclient_requests",
+        new String[]{"local_address", "method", "host", "state"}, new String[]{"unknown", "GET", HOST, state});
+    assertEquals(state, expected, value == null ? 0 : value, 0);
+  }
+}
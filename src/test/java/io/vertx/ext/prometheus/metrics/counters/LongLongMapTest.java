@@ -0,0 +1,114 @@
+package io.vertx.ext.prometheus.metrics.counters;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public final class LongLongMapTest {
+  private static final long ABSENT = Long.MIN_VALUE;
+  private static final int BITS = 3;
+
+  @Test
+  public void collisions() {
+    final LongLongMap map = new LongLongMap(1 << BITS);
+    final long[] keys = keysAt(2, 3);
+    for (long key : keys) {
+      map.put(key, key * 10);
+    }
+    map.put(keys[1], 42);
+
+    assertEquals(3, map.size());
+    assertEquals(keys[0] * 10, map.remove(keys[0], ABSENT));
+    assertEquals(42, map.remove(keys[1], ABSENT));
+    assertEquals(keys[2] * 10, map.remove(keys[2], ABSENT));
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void wraparound() {
+    final LongLongMap map = new LongLongMap(1 << BITS);
+    final long[] last = keysAt((1 << BITS) - 1, 2);
+    final long first = keysAt(0, 1)[0];
+    // fills the last slot, then wraps around to the first two
+    map.put(last[0], 1);
+    map.put(last[1], 2);
+    map.put(first, 3);
+
+    assertEquals(1, map.remove(last[0], ABSENT));
+    assertEquals(ABSENT, map.remove(last[0], ABSENT));
+    assertEquals(3, map.remove(first, ABSENT));
+    assertEquals(2, map.remove(last[1], ABSENT));
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void removeInsideProbeChain() {
+    final LongLongMap map = new LongLongMap(1 << BITS);
+    final long[] chain = keysAt(2, 3);
+    final long next = keysAt(3, 1)[0];
+    map.put(chain[0], 1);
+    map.put(chain[1], 2);
+    map.put(next, 3);
+    map.put(chain[2], 4);
+
+    assertEquals(2, map.remove(chain[1], ABSENT));
+    assertEquals(ABSENT, map.remove(chain[1], ABSENT));
+    assertEquals(4, map.remove(chain[2], ABSENT));
+    assertEquals(3, map.remove(next, ABSENT));
+    assertEquals(1, map.remove(chain[0], ABSENT));
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void resize() {
+    final LongLongMap map = new LongLongMap(2);
+    for (long key = 0; key < 10_000; key++) {
+      map.put(key, -key);
+    }
+    assertEquals(10_000, map.size());
+    for (long key = 0; key < 10_000; key += 2) {
+      assertEquals(-key, map.remove(key, ABSENT));
+    }
+    for (long key = 0; key < 10_000; key++) {
+      assertEquals(key % 2 == 0 ? ABSENT : -key, map.remove(key, ABSENT));
+    }
+    assertEquals(0, map.size());
+  }
+
+  @Test
+  public void matchesHashMap() {
+    final Random random = new Random(42);
+    final LongLongMap map = new LongLongMap(4);
+    final Map<Long, Long> expected = new HashMap<>();
+    for (int i = 0; i < 100_000; i++) {
+      final long key = random.nextInt(512);
+      if (random.nextBoolean()) {
+        map.put(key, i);
+        expected.put(key, (long) i);
+      } else {
+        assertEquals((long) expected.getOrDefault(key, ABSENT), map.remove(key, ABSENT));
+        expected.remove(key);
+      }
+      assertEquals(expected.size(), map.size());
+    }
+  }
+
+  /**
+   * Keys whose home slot in a table of {@code 2^BITS} slots is the given one, computed like the map does.
+   */
+  private static @NotNull long[] keysAt(int home, int count) {
+    final long[] keys = new long[count];
+    long key = 0;
+    for (int i = 0; i < count; key++) {
+      if ((int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - BITS)) == home) {
+        keys[i++] = key;
+      }
+    }
+    return keys;
+  }
+}